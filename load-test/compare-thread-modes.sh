@@ -0,0 +1,33 @@
+#!/usr/bin/env bash
+# Runs the k6 scenario against the API on platform threads and then with the "virtual" profile, and keeps one
+# summary per mode in load-test/results. Needs k6 on the PATH. Usage: compare-thread-modes.sh [products file] [vus]
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+PRODUCTS_FILE="${1:-$ROOT/product-list/src/main/resources/jsons/products.json}"
+VUS="${2:-500}"
+RESULTS="$ROOT/load-test/results"
+mkdir -p "$RESULTS"
+
+(cd "$ROOT/product-list" && ./gradlew -q bootJar)
+JAR="$(ls "$ROOT"/product-list/build/libs/*.jar | grep -v plain | head -n 1)"
+
+for mode in platform virtual; do
+    profile=""
+    if [ "$mode" = "virtual" ]; then
+        profile="--spring.profiles.active=virtual"
+    fi
+    # Reports every virtual thread that pins its carrier while blocking
+    java -Djdk.tracePinnedThreads=short -jar "$JAR" --product.list.file="$PRODUCTS_FILE" $profile \
+        > "$RESULTS/$mode-server.log" 2>&1 &
+    server=$!
+    trap 'kill $server 2>/dev/null || true' EXIT
+    until curl -sf http://localhost:8080/actuator/health/readiness > /dev/null; do
+        sleep 1
+    done
+    k6 run -q -e VUS="$VUS" --summary-export "$RESULTS/$mode-summary.json" "$ROOT/load-test/products.js"
+    kill "$server"
+    wait "$server" 2>/dev/null || true
+done
+
+echo "Summaries written to $RESULTS, pinned threads are reported in the *-server.log files"
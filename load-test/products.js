@@ -0,0 +1,37 @@
+// k6 scenario for the product API: ID lookups, listing pages and searches, ramped to a fixed number of
+// concurrent users. Run with: k6 run -e BASE_URL=http://localhost:8080 -e VUS=500 products.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = parseInt(__ENV.VUS || '500');
+
+export const options = {
+    stages: [
+        { duration: '30s', target: VUS },
+        { duration: '2m', target: VUS },
+        { duration: '15s', target: 0 },
+    ],
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function setup() {
+    const products = http.get(`${BASE_URL}/products?size=100&view=summary`).json();
+    return { ids: products.map((product) => product.productId) };
+}
+
+export default function (data) {
+    const roll = Math.random();
+    let response;
+    if (roll < 0.6) {
+        const id = data.ids[Math.floor(Math.random() * data.ids.length)];
+        response = http.get(`${BASE_URL}/products/${id}`, { tags: { name: 'product' } });
+    } else if (roll < 0.85) {
+        const page = Math.floor(Math.random() * 10);
+        response = http.get(`${BASE_URL}/products?page=${page}&size=20&sort=price&direction=ASC`,
+            { tags: { name: 'list' } });
+    } else {
+        response = http.get(`${BASE_URL}/products/search?name=a&priceMin=10&size=20`, { tags: { name: 'search' } });
+    }
+    check(response, { 'status is 2xx or 404': (r) => (r.status >= 200 && r.status < 300) || r.status === 404 });
+}
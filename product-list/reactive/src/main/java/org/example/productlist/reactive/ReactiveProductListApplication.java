@@ -0,0 +1,18 @@
+package org.example.productlist.reactive;
+
+import org.example.productlist.configuration.CatalogInitializer;
+import org.example.productlist.configuration.CatalogReloader;
+import org.example.productlist.configuration.LocalStorage;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+
+@SpringBootApplication
+@Import({ LocalStorage.class, CatalogInitializer.class, CatalogReloader.class })
+public class ReactiveProductListApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveProductListApplication.class, args);
+    }
+
+}
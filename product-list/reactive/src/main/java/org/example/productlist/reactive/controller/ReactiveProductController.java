@@ -0,0 +1,150 @@
+package org.example.productlist.reactive.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import org.example.productlist.exception.InvalidCursorException;
+import org.example.productlist.model.entity.Product;
+import org.example.productlist.model.records.ResponseMessage;
+import org.example.productlist.reactive.repository.ReactiveProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The read endpoints of ProductController on WebFlux. Responses are written as products are emitted instead of being
+ * collected first, and /export streams NDJSON at the pace the client reads it.
+ */
+@RestController
+@RequestMapping("/products")
+public class ReactiveProductController {
+
+    public ReactiveProductController(ReactiveProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    private final ReactiveProductRepository productRepository;
+
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final int MAX_RATING_PAGE_SIZE = 100;
+
+    private final Logger logger = LoggerFactory.getLogger(ReactiveProductController.class);
+
+    @Operation(summary = "List of Products", description = "Retrieve a paginated list of products with optional sorting")
+    @GetMapping
+    public Flux<Product> getProducts(@RequestParam(value = "page", defaultValue = "0") Integer page,
+            @RequestParam(value = "size", defaultValue = "10") Integer size,
+            @RequestParam(value = "sort", defaultValue = "datCreation") String sort,
+            @RequestParam(value = "direction", defaultValue = "DESC") String direction) {
+        logger.info("Retrieving products with page: {}, size: {}, sort: {}, direction: {}", page, size, sort,
+                direction);
+        return productRepository.getProducts(page, size, sort, direction);
+    }
+
+    @Operation(summary = "Export Products", description = "Stream every product matching the optional filters as newline-delimited JSON")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Product> exportProducts(@RequestParam(value = "name", defaultValue = "") String name,
+            @RequestParam(value = "specifications", defaultValue = "") String specifications,
+            @RequestParam(value = "ratingMin", defaultValue = "0") Double ratingMin,
+            @RequestParam(value = "ratingMax", defaultValue = "5") Double ratingMax,
+            @RequestParam(value = "priceMin", defaultValue = "0") Double priceMin,
+            @RequestParam(value = "priceMax", defaultValue = "0") Double priceMax) {
+        logger.info(
+                "Exporting products with name: {}, specifications: {}, ratingMin: {}, ratingMax: {}, priceMin: {}, priceMax: {}",
+                name, specifications, ratingMin, ratingMax, priceMin, priceMax);
+        return productRepository.getProductsByParams(name, specifications, ratingMin, ratingMax, priceMin, priceMax);
+    }
+
+    @Operation(summary = "Products by IDs", description = "Resolve up to 500 comma-separated product IDs. Unknown IDs are listed in missing")
+    @GetMapping("/batch")
+    public Mono<ResponseEntity<?>> getProductsByIds(@RequestParam("ids") List<String> productIds) {
+        logger.info("Retrieving products by IDs: {}", productIds);
+        if (productIds.isEmpty() || productIds.size() > MAX_BATCH_SIZE) {
+            return Mono.just(ResponseEntity.badRequest().body(message(
+                    "Between 1 and " + MAX_BATCH_SIZE + " product IDs are required", HttpStatus.BAD_REQUEST)));
+        }
+        return productRepository.getProductsByIds(productIds).map(ResponseEntity::ok);
+    }
+
+    @Operation(summary = "Product by ID", description = "Retrieve a product by ID")
+    @GetMapping("/{productId}")
+    public Mono<ResponseEntity<?>> getProductById(@PathVariable("productId") String productId) {
+        logger.info("Retrieving product with ID: {}", productId);
+        return productRepository.getProductById(productId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(message("Product not found for ID: " + productId, HttpStatus.NOT_FOUND)));
+    }
+
+    @Operation(summary = "Product Ratings", description = "Retrieve a page of a product's ratings, most recent first or sorted by score")
+    @GetMapping("/{productId}/ratings")
+    public Mono<ResponseEntity<?>> getRatings(@PathVariable("productId") String productId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") Integer size,
+            @RequestParam(value = "sort", defaultValue = "recent") String sort,
+            @RequestParam(value = "direction", defaultValue = "DESC") String direction) {
+        logger.info("Retrieving ratings of product: {} with cursor: {}, size: {}, sort: {}, direction: {}", productId,
+                cursor, size, sort, direction);
+        if (size < 1 || size > MAX_RATING_PAGE_SIZE) {
+            return Mono.just(ResponseEntity.badRequest().body(message(
+                    "Between 1 and " + MAX_RATING_PAGE_SIZE + " ratings per page are allowed", HttpStatus.BAD_REQUEST)));
+        }
+        return productRepository.getRatings(productId, cursor, size, sort, direction)
+                .<ResponseEntity<?>>map(ratingPage -> {
+                    var response = ResponseEntity.ok();
+                    if (ratingPage.nextCursor() != null) {
+                        response.header(NEXT_CURSOR_HEADER, ratingPage.nextCursor());
+                    }
+                    return response.body(ratingPage.ratings());
+                })
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(message("Product not found for ID: " + productId, HttpStatus.NOT_FOUND)))
+                .onErrorResume(InvalidCursorException.class, e -> Mono.just(ResponseEntity.badRequest()
+                        .body(message(e.getMessage(), HttpStatus.BAD_REQUEST))));
+    }
+
+    @Operation(summary = "Product Search by Params", description = "Retrieve a paginated list of products by name, specifications, rating and price. The total number of matches is returned in the X-Total-Count header")
+    @GetMapping("/search")
+    public Mono<ResponseEntity<?>> getProductSearchByParams(@RequestParam("name") String name,
+            @RequestParam(value = "specifications", defaultValue = "") String specifications,
+            @RequestParam(value = "ratingMin", defaultValue = "0") Double ratingMin,
+            @RequestParam(value = "ratingMax", defaultValue = "5") Double ratingMax,
+            @RequestParam(value = "priceMin", defaultValue = "0") Double priceMin,
+            @RequestParam(value = "priceMax", defaultValue = "0") Double priceMax,
+            @RequestParam(value = "page", defaultValue = "0") Integer page,
+            @RequestParam(value = "size", defaultValue = "10") Integer size,
+            @RequestParam(value = "sort", defaultValue = "datCreation") String sort,
+            @RequestParam(value = "direction", defaultValue = "DESC") String direction) {
+        logger.info(
+                "Searching products with name: {}, specifications: {}, ratingMin: {}, ratingMax: {}, priceMin: {}, priceMax: {}, page: {}, size: {}, sort: {}, direction: {}",
+                name, specifications, ratingMin, ratingMax, priceMin, priceMax, page, size, sort, direction);
+        if (name == null || name.isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest()
+                    .body(message("Product name cannot be null or empty", HttpStatus.BAD_REQUEST)));
+        }
+        return productRepository.searchProducts(name, specifications, ratingMin, ratingMax, priceMin, priceMax,
+                        page, size, sort, direction)
+                .<ResponseEntity<?>>map(productPage -> productPage.totalCount() == 0
+                        ? ResponseEntity.status(HttpStatus.NOT_FOUND)
+                                .body(message("No products found matching the criteria", HttpStatus.NOT_FOUND))
+                        : ResponseEntity.ok()
+                                .header(TOTAL_COUNT_HEADER, String.valueOf(productPage.totalCount()))
+                                .body(productPage.products()));
+    }
+
+    private static ResponseMessage message(String message, HttpStatus status) {
+        return new ResponseMessage(message, String.valueOf(status.value()), LocalDateTime.now().toString());
+    }
+}
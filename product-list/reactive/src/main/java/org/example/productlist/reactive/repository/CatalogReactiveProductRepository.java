@@ -0,0 +1,64 @@
+package org.example.productlist.reactive.repository;
+
+import org.example.productlist.model.entity.Product;
+import org.example.productlist.model.records.ProductBatch;
+import org.example.productlist.model.records.ProductPage;
+import org.example.productlist.model.records.RatingPage;
+import org.example.productlist.repository.ProductRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Reactive view of the in-memory catalog. Every read is a lookup in an immutable snapshot and never blocks, so the
+ * work runs on the subscribing event-loop thread. Lists are emitted one product at a time as downstream demand
+ * arrives, which lets Netty apply backpressure to large results.
+ */
+@Repository
+public class CatalogReactiveProductRepository implements ReactiveProductRepository {
+
+    public CatalogReactiveProductRepository(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    private final ProductRepository productRepository;
+
+    @Override
+    public Flux<Product> getProducts(Integer page, Integer size, String sort, String direction) {
+        return Flux.defer(() -> Flux.fromIterable(productRepository.getProducts(page, size, sort, direction)));
+    }
+
+    @Override
+    public Mono<Product> getProductById(String productId) {
+        return Mono.fromSupplier(() -> productRepository.getProductById(productId));
+    }
+
+    @Override
+    public Mono<ProductBatch> getProductsByIds(List<String> productIds) {
+        return Mono.fromSupplier(() -> productRepository.getProductsByIds(productIds));
+    }
+
+    @Override
+    public Flux<Product> getProductsByParams(String productName, String specifications, Double ratingMin,
+            Double ratingMax, Double priceMin, Double priceMax) {
+        // The stream walks the match bitmap lazily, products are only read when requested
+        return Flux.defer(() -> Flux.fromStream(productRepository.streamProductsByParams(productName,
+                specifications, ratingMin, ratingMax, priceMin, priceMax)));
+    }
+
+    @Override
+    public Mono<ProductPage> searchProducts(String productName, String specifications, Double ratingMin,
+            Double ratingMax, Double priceMin, Double priceMax, Integer page, Integer size, String sort,
+            String direction) {
+        return Mono.fromSupplier(() -> productRepository.searchProducts(productName, specifications, ratingMin,
+                ratingMax, priceMin, priceMax, page, size, sort, direction));
+    }
+
+    @Override
+    public Mono<RatingPage> getRatings(String productId, String cursor, Integer size, String sort,
+            String direction) {
+        return Mono.fromSupplier(() -> productRepository.getRatings(productId, cursor, size, sort, direction));
+    }
+}
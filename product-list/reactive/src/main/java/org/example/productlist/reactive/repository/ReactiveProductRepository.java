@@ -0,0 +1,21 @@
+package org.example.productlist.reactive.repository;
+
+import org.example.productlist.model.entity.Product;
+import org.example.productlist.model.records.ProductBatch;
+import org.example.productlist.model.records.ProductPage;
+import org.example.productlist.model.records.RatingPage;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface ReactiveProductRepository {
+    Flux<Product> getProducts(Integer page, Integer size, String sort, String direction);
+    Mono<Product> getProductById(String productId);
+    Mono<ProductBatch> getProductsByIds(List<String> productIds);
+    Flux<Product> getProductsByParams(String productName, String specifications,
+            Double ratingMin, Double ratingMax, Double priceMin, Double priceMax);
+    Mono<ProductPage> searchProducts(String productName, String specifications, Double ratingMin, Double ratingMax,
+            Double priceMin, Double priceMax, Integer page, Integer size, String sort, String direction);
+    Mono<RatingPage> getRatings(String productId, String cursor, Integer size, String sort, String direction);
+}
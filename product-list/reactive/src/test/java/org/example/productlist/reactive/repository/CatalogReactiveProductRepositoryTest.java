@@ -0,0 +1,59 @@
+package org.example.productlist.reactive.repository;
+
+import org.example.productlist.model.entity.Product;
+import org.example.productlist.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.test.StepVerifier;
+
+import java.util.stream.IntStream;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CatalogReactiveProductRepositoryTest {
+
+    @InjectMocks
+    private CatalogReactiveProductRepository reactiveProductRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testGetProductById_EmptyWhenNotFound() {
+        when(productRepository.getProductById("missing")).thenReturn(null);
+
+        StepVerifier.create(reactiveProductRepository.getProductById("missing"))
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetProductsByParams_EmitsOnDemand() {
+        when(productRepository.streamProductsByParams("", "", 0.0, 5.0, 0.0, 0.0)).thenAnswer(invocation ->
+                IntStream.range(0, 1000).mapToObj(i -> new Product(String.valueOf(i), "Product " + i, 1.0, null,
+                        null, null, null, null, null)));
+
+        StepVerifier.create(reactiveProductRepository.getProductsByParams("", "", 0.0, 5.0, 0.0, 0.0), 2)
+                .expectNextCount(2)
+                .thenRequest(3)
+                .expectNextCount(3)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void testGetProducts_ReadsCatalogOnSubscribe() {
+        reactiveProductRepository.getProducts(0, 10, "name", "ASC");
+
+        verify(productRepository, never()).getProducts(0, 10, "name", "ASC");
+    }
+}
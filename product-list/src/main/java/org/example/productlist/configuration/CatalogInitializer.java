@@ -0,0 +1,45 @@
+package org.example.productlist.configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Loads the catalog eagerly at startup. Spring Boot only switches the readiness state to ACCEPTING_TRAFFIC once
+ * every runner has finished, so the pod is not ready until the catalog and its indexes are built.
+ */
+@Component
+public class CatalogInitializer implements ApplicationRunner {
+
+    public CatalogInitializer(LocalStorage localStorage, MeterRegistry meterRegistry) {
+        this.localStorage = localStorage;
+        this.meterRegistry = meterRegistry;
+    }
+
+    private final LocalStorage localStorage;
+    private final MeterRegistry meterRegistry;
+
+    private final Logger logger = LoggerFactory.getLogger(CatalogInitializer.class);
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        var snapshot = localStorage.initialize();
+        var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        meterRegistry.timer("catalog.load.time").record(elapsed);
+        Gauge.builder("catalog.products", localStorage, storage -> storage.getProducts().size())
+                .description("Number of products in the current catalog snapshot")
+                .register(meterRegistry);
+        Gauge.builder("catalog.version", localStorage, LocalStorage::getCatalogVersion)
+                .description("Version of the catalog snapshot serving requests, incremented on every reload")
+                .register(meterRegistry);
+        logger.info("Catalog loaded with {} products in {} ms", snapshot.size(), elapsed.toMillis());
+    }
+}
@@ -0,0 +1,131 @@
+package org.example.productlist.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+/**
+ * Watches the product file and reloads the catalog in the background when it changes. Events are debounced, so a
+ * burst of writes causes a single reload once the file has been quiet for the debounce period. A file that fails to
+ * load is rejected and the current catalog keeps serving.
+ */
+@Component
+public class CatalogReloader implements SmartLifecycle {
+
+    public CatalogReloader(LocalStorage localStorage, MeterRegistry meterRegistry,
+            @Value("${product.list.reload.enabled:true}") boolean enabled,
+            @Value("${product.list.reload.debounce:2s}") Duration debounce) {
+        this.localStorage = localStorage;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.debounce = debounce;
+    }
+
+    private final LocalStorage localStorage;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration debounce;
+    private final AtomicReference<ScheduledFuture<?>> pendingReload = new AtomicReference<>();
+    private volatile WatchService watchService;
+    private volatile ScheduledExecutorService scheduler;
+
+    private final Logger logger = LoggerFactory.getLogger(CatalogReloader.class);
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        var file = localStorage.getProductFile().toAbsolutePath();
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            file.getParent().register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+        } catch (IOException e) {
+            logger.error("Cannot watch product file {}, hot reload is disabled", file, e);
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("catalog-reloader")
+                .factory());
+        Thread.ofPlatform().daemon().name("catalog-watcher").start(() -> watch(file.getFileName()));
+        logger.info("Watching product file {} for changes", file);
+    }
+
+    private void watch(Path fileName) {
+        try {
+            while (true) {
+                var key = watchService.take();
+                boolean changed = key.pollEvents().stream()
+                        .anyMatch(event -> fileName.equals(event.context()));
+                if (changed) {
+                    scheduleReload();
+                }
+                key.reset();
+            }
+        } catch (ClosedWatchServiceException e) {
+            logger.debug("Stopped watching the product file");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void scheduleReload() {
+        var next = scheduler.schedule(this::reload, debounce.toMillis(), TimeUnit.MILLISECONDS);
+        var previous = pendingReload.getAndSet(next);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    private void reload() {
+        long start = System.nanoTime();
+        try {
+            var snapshot = localStorage.reload();
+            meterRegistry.timer("catalog.load.time").record(Duration.ofNanos(System.nanoTime() - start));
+            meterRegistry.counter("catalog.reloads", "result", "success").increment();
+            logger.info("Published catalog version {} with {} products", snapshot.getVersion(), snapshot.size());
+        } catch (RuntimeException e) {
+            meterRegistry.counter("catalog.reloads", "result", "failure").increment();
+            logger.error("Rejected product file, keeping the current catalog: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void stop() {
+        var watcher = watchService;
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close the product file watcher", e);
+            }
+            watchService = null;
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return watchService != null;
+    }
+}
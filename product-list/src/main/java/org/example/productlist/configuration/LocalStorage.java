@@ -1,157 +1,646 @@
 package org.example.productlist.configuration;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.productlist.exception.InputStreamObjectException;
+import org.example.productlist.exception.InvalidDeltaException;
 import org.example.productlist.model.entity.Product;
+import org.example.productlist.model.entity.Rating;
+import org.example.productlist.model.entity.Specifications;
+import org.example.productlist.model.records.CatalogChangeRecord;
+import org.example.productlist.model.records.CatalogDeltaRecord;
+import org.example.productlist.model.records.CursorPage;
+import org.example.productlist.model.records.ProductBatch;
+import org.example.productlist.model.records.ProductPage;
+import org.example.productlist.model.records.QueryPlanRecord;
+import org.example.productlist.model.records.RatingPage;
+import org.example.productlist.model.records.RatingRecord;
 import org.example.productlist.repository.ProductRepository;
+import org.example.productlist.storage.BinaryCatalog;
+import org.example.productlist.storage.CatalogSnapshot;
+import org.example.productlist.storage.CatalogStore;
+import org.example.productlist.storage.PageCursor;
+import org.example.productlist.storage.ProductFileLoader;
+import org.example.productlist.storage.RatingCursor;
+import org.example.productlist.storage.RatingSegment;
+import org.example.productlist.storage.RatingSort;
+import org.example.productlist.storage.SearchQuery;
+import org.example.productlist.storage.SortKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.io.File;
-import java.util.Arrays;
-import java.util.Comparator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Component
-public class LocalStorage implements ProductRepository {
+public class LocalStorage implements ProductRepository, AutoCloseable {
+
+    // Outcome of a delta: the catalog it produces, this one when nothing changed, and what is reported back
+    private record Change(CatalogSnapshot next, CatalogChangeRecord result) {
+    }
+
+    // Record of the log: a delta, or ratings appended without looking up their ids
+    private record LoggedChange(CatalogDeltaRecord delta, List<Rating> ratings) {
+    }
 
     @Value("${product.list.file}")
     private String productFilePath;
-    private List<Product> products;
+    @Value("${product.list.parallel-load:true}")
+    private boolean parallelLoad;
+    @Value("${product.list.persistence.dir:}")
+    private String persistenceDir;
+    @Value("${product.list.persistence.checkpoint-bytes:67108864}")
+    private long checkpointBytes;
+    // Catalog readers see, only ever holds changes that are on disk
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+    // Serializes loads and changes. A lock rather than synchronized: virtual threads waiting for the load must not
+    // pin their carrier threads
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // Latest catalog, including changes still waiting for the log. Guarded by writeLock
+    private CatalogSnapshot head;
+    // Null when persistence is off
+    private CatalogStore store;
+    // Bumped whenever a failed log write takes head back to the published catalog. Guarded by writeLock
+    private long logEpoch;
+    private final ObjectMapper logMapper = new ObjectMapper();
 
     private final Logger logger = LoggerFactory.getLogger(LocalStorage.class);
 
-    private void loadProducts() {
-        logger.info("Loading products from file: {}", productFilePath);
+    private CatalogSnapshot loadProducts(Path path, long version) {
+        return loadProducts(path, version, null);
+    }
+
+    // Products already in the current catalog, when there is one, keep the ratings they have there
+    private CatalogSnapshot loadProducts(Path path, long version, CatalogSnapshot current) {
+        logger.info("Loading products from file: {}", path);
         try {
+            var builder = CatalogSnapshot.builder(version);
+            Consumer<Product> add = current == null ? builder::add : product -> {
+                var existing = current.getById(product.getProductId());
+                if (existing == null) {
+                    builder.add(product);
+                } else {
+                    builder.add(product.withRatingsOf(existing), current.getRatings(product.getProductId()));
+                }
+            };
+            if (BinaryCatalog.isBinaryCatalog(path)) {
+                BinaryCatalog.open(path).forEach(add);
+                return builder.build();
+            }
             ObjectMapper mapper = new ObjectMapper();
-            products = mapper.readValue(
-                    new File(productFilePath), new TypeReference<List<Product>>() {
-                    });
-
+            var loader = new ProductFileLoader(mapper);
+            if (parallelLoad) {
+                loader.load(path, add);
+            } else {
+                loader.stream(path, add);
+            }
+            return builder.build();
         } catch (Exception e) {
             throw new InputStreamObjectException("Failed to load products from file" + e.getMessage() );
         }
     }
 
-    @Override
-    public List<Product> getProducts(Integer page, Integer size, String sort, String direction) {
-        logger.info("Retrieving products with page: {}, size: {}, sort: {}, direction: {}", page, size, sort, direction);
-        if (products == null) {
-            loadProducts();
+    /**
+     * Loads the catalog if it is not loaded yet. Concurrent callers wait for the single load in progress.
+     */
+    public CatalogSnapshot initialize() {
+        var current = snapshot.get();
+        if (current != null) {
+            return current;
         }
-        if(!sort.equals("dateCreation")){
-            Comparator<Product> comparator = getComparator(sort);
-            if(direction.equalsIgnoreCase("DESC")){
-                comparator = comparator.reversed();
+        writeLock.lock();
+        try {
+            current = snapshot.get();
+            if (current == null) {
+                current = recover();
+                head = current;
+                snapshot.set(current);
             }
-            products.sort(comparator);
+            return current;
+        } finally {
+            writeLock.unlock();
         }
-        int fromIndex = Math.min(page * size, products.size());
-        int toIndex = Math.min(fromIndex + size, products.size());
-        return  products.subList(fromIndex, toIndex);
     }
 
-    @Override
-    public List<Product> getProducts() {
-        if (products == null) {
-            loadProducts();
+    /**
+     * Loads the newest checkpoint, or the product file while there is none, and replays the changes logged after it.
+     * Without a persistence directory this is just the product file. The product file can change at any time, so
+     * when it is the base the recovered catalog is checkpointed before any further change is logged.
+     */
+    private CatalogSnapshot recover() {
+        var productFile = Path.of(productFilePath);
+        if (persistenceDir == null || persistenceDir.isBlank()) {
+            return loadProducts(productFile, 1);
+        }
+        try {
+            store = new CatalogStore(Path.of(persistenceDir), checkpointBytes);
+            var checkpoint = store.latestCheckpoint();
+            var recovered = new CatalogSnapshot[] { loadProducts(checkpoint != null ? checkpoint : productFile, 1) };
+            int changes = store.recover(change -> recovered[0] = replay(recovered[0], readChange(change)).next());
+            logger.info("Recovered {} logged changes on top of {}", changes, checkpoint != null ? checkpoint
+                    : productFile);
+            if (checkpoint == null) {
+                writeCheckpoint(recovered[0]);
+            }
+            return recovered[0];
+        } catch (IOException e) {
+            throw new InputStreamObjectException("Failed to recover the catalog from " + persistenceDir + ": "
+                    + e.getMessage());
         }
-        return products;
+    }
+
+    /**
+     * Parses the product file again and swaps the new catalog in. Requests already running finish on the snapshot
+     * they started with. When the file cannot be loaded the exception propagates and the current catalog stays.
+     * The file owns the products and their fields: products missing from it are removed, and the ones in it replace
+     * the current ones. Ratings belong to the catalog, so a product that was already there keeps its ratings and
+     * their aggregates whatever ratings the file lists for it. The result is not derived from the log, so it becomes
+     * the checkpoint the log restarts from and changes wait until it is on disk: before that, recovery would replay
+     * them on top of the previous checkpoint. When it cannot be written the exception propagates and the current
+     * catalog stays, which is still what the log recovers to. The file is parsed and indexed without holding the
+     * lock, so changes keep going meanwhile; only the ratings they added are carried over when the catalog is swapped.
+     */
+    public CatalogSnapshot reload() {
+        currentSnapshot();
+        CatalogSnapshot base;
+        writeLock.lock();
+        try {
+            base = head;
+        } finally {
+            writeLock.unlock();
+        }
+        var loaded = loadProducts(Path.of(productFilePath), base.getVersion() + 1, base);
+        writeLock.lock();
+        try {
+            var reloaded = head == base ? loaded : rebase(loaded, base, head);
+            if (store != null) {
+                writeCheckpoint(reloaded);
+            }
+            head = reloaded;
+            snapshot.set(reloaded);
+            logger.info("Catalog reloaded as version {} with {} products", reloaded.getVersion(), reloaded.size());
+            return reloaded;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Reloaded catalog with the ratings its products got in the current one since it was loaded from the base. A
+    // changed rating always comes with a new segment, so looking up every product is enough to find them
+    private static CatalogSnapshot rebase(CatalogSnapshot reloaded, CatalogSnapshot base, CatalogSnapshot current) {
+        List<Product> rated = new ArrayList<>();
+        Map<String, RatingSegment> segments = new HashMap<>();
+        for (Product product : reloaded.getProducts()) {
+            var productId = product.getProductId();
+            var ratings = current.getRatings(productId);
+            if (ratings != null && ratings != base.getRatings(productId)) {
+                rated.add(product.withRatingsOf(current.getById(productId)));
+                segments.put(productId, ratings);
+            }
+        }
+        return reloaded.applyRatings(current.getVersion() + 1, rated, segments);
+    }
+
+    public Path getProductFile() {
+        return Path.of(productFilePath);
+    }
+
+    private CatalogSnapshot currentSnapshot() {
+        var current = snapshot.get();
+        return current != null ? current : initialize();
     }
 
     @Override
-    public Product getProductById(String productId) {
-        if (products == null) {
-            loadProducts();
+    public void close() throws InterruptedException {
+        if (store != null) {
+            store.close();
         }
-        return products.stream()
-                .filter(product -> product.getProductId().equals(productId))
-                .findFirst()
-                .orElse(null);
     }
 
+    /**
+     * Applies the delta on top of the latest catalog and publishes the result as the next version. Only one change
+     * or load runs at a time; readers keep using the snapshot they hold and never wait for the change. With
+     * persistence on, the change is logged before it is published and this returns once it is on disk: changes
+     * arriving together share one fsync, and the next one is applied while the previous one is still being written.
+     */
     @Override
-    public List<Product> getProductsByParams(String productName, String specifications,
-            Double ratingMin, Double ratingMax, Double priceMin, Double priceMax){
-        if (products == null) {
-            loadProducts();
+    public CatalogChangeRecord applyDelta(CatalogDeltaRecord delta) {
+        logger.info("Applying delta with {} products, {} specifications, {} ratings and {} deleted products",
+                delta.products().size(), delta.specifications().size(), delta.ratings().size(),
+                delta.deletedProducts().size());
+        return commit(new LoggedChange(delta, null));
+    }
+
+    /**
+     * Appends new ratings to their products like {@link #applyDelta} does, without looking up the rating ids, so each
+     * rating must have a new id or none. The cost depends on the number of ratings added, not on the number the
+     * products already have. Publishing them still copies a few arrays as long as the catalog, see
+     * {@link CatalogSnapshot#applyRatings}, so ratings are best added in batches. Ratings of products missing from the
+     * catalog are reported and dropped.
+     */
+    @Override
+    public CatalogChangeRecord addRatings(List<Rating> ratings) {
+        logger.info("Adding {} ratings", ratings.size());
+        return commit(new LoggedChange(null, ratings));
+    }
+
+    private CatalogChangeRecord commit(LoggedChange logged) {
+        Change change;
+        CompletableFuture<Void> published = CompletableFuture.completedFuture(null);
+        long epoch;
+        writeLock.lock();
+        try {
+            currentSnapshot();
+            epoch = logEpoch;
+            change = replay(head, logged);
+            var next = change.next();
+            if (next != head) {
+                head = next;
+                if (store == null) {
+                    publishIfNewer(next);
+                } else {
+                    // The log completes changes in order, so they are published in order too
+                    published = store.append(writeChange(logged)).thenRun(() -> publishIfNewer(next));
+                    if (store.isCheckpointDue()) {
+                        checkpoint(next);
+                    }
+                }
+            }
+        } finally {
+            writeLock.unlock();
         }
-        logger.info("Searching products by params: {}, {}, {}, {}, {}, {}", productName, specifications, ratingMin, ratingMax, priceMin, priceMax);
-        var productList = getProducts();
-        if (productName != null && !productName.trim().isEmpty()) {
-            productList = filterProductsByName(productList, productName);
+        try {
+            published.join();
+        } catch (CompletionException e) {
+            // The changes logged after this one were derived from it and fail too. The first of them to get here
+            // takes the catalog back to what is on disk and has the log take the changes made from there on
+            writeLock.lock();
+            try {
+                if (epoch == logEpoch) {
+                    logEpoch++;
+                    head = snapshot.get();
+                    store.resetLog();
+                }
+            } finally {
+                writeLock.unlock();
+            }
+            logger.error("Failed to log catalog change", e.getCause());
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        logger.info("Catalog version {} with {} upserted and {} deleted products", change.result().catalogVersion(),
+                change.result().upserted(), change.result().deleted());
+        return change.result();
+    }
+
+    private Change replay(CatalogSnapshot current, LoggedChange change) {
+        return change.delta() != null ? applyChange(current, change.delta())
+                : appendRatings(current, change.ratings());
+    }
+
+    private Change applyChange(CatalogSnapshot current, CatalogDeltaRecord delta) {
+        // Final state of every product the delta touches and of its ratings, keyed by productId. Products are copies,
+        // so the delta is logged as it came and readers never see an edit
+        Map<String, Product> changed = new LinkedHashMap<>();
+        Map<String, RatingSegment> ratings = new HashMap<>();
+        var missing = new LinkedHashSet<String>();
+        for (Product product : delta.products()) {
+            if (product == null || product.getProductId() == null) {
+                throw new InvalidDeltaException("Every product needs a productId");
+            }
+            var productId = product.getProductId();
+            var previous = changed.containsKey(productId) ? changed.get(productId) : current.getById(productId);
+            if (product.getRatingList() == null && previous != null) {
+                // Sent without ratings, as after a GET: the product keeps the ones it has
+                changed.put(productId, product.withRatingsOf(previous));
+                ratings.putIfAbsent(productId, current.getRatings(productId));
+            } else {
+                var copy = product.copy();
+                changed.put(productId, copy);
+                ratings.put(productId, new RatingSegment(copy.detachRatings()));
+            }
         }
-        if (specifications != null && !specifications.trim().isEmpty()) {
-            productList = filterProductsBySpecifications(productList, specifications);
+        for (Specifications specification : delta.specifications()) {
+            var product = changedProduct(current, changed, ratings, specification.getProductId(), missing);
+            if (product != null) {
+                if (specification.getSpecificationId() == null) {
+                    specification.setSpecificationId(UUID.randomUUID().toString());
+                }
+                product.setSpecificationsList(upsert(product.getSpecificationsList(), specification,
+                        Specifications::getSpecificationId));
+            }
         }
-        productList = filterProductsByPriceMinMax(productList, priceMin, priceMax);
-        productList = filterProductsByRatingMinMax(productList, ratingMin, ratingMax);
-        logger.info("Found {} products matching the criteria", productList.size());
-        return productList;
+        // Rating ids of each product, only looked up for ratings that arrive with an id of their own
+        Map<String, Set<String>> ratingIds = new HashMap<>();
+        for (Rating rating : delta.ratings()) {
+            var product = changedProduct(current, changed, ratings, rating.getProductId(), missing);
+            if (product != null) {
+                var productId = product.getProductId();
+                var segment = ratings.get(productId);
+                if (rating.getRatingId() == null) {
+                    rating.setRatingId(UUID.randomUUID().toString());
+                } else if (!ratingIds.computeIfAbsent(productId, id -> ratingIds(segment)).add(rating.getRatingId())) {
+                    int position = segment.indexOf(rating.getRatingId());
+                    product.removeRating(segment.get(position));
+                    product.addRating(rating);
+                    ratings.put(productId, segment.replace(position, rating));
+                    continue;
+                }
+                // Appends to the segment and updates the running aggregates, neither touches the other ratings
+                product.addRating(rating);
+                ratings.put(productId, segment.append(rating));
+            }
+        }
+        for (Specifications specification : delta.deletedSpecifications()) {
+            var product = changedProduct(current, changed, ratings, specification.getProductId(), missing);
+            if (product != null) {
+                product.setSpecificationsList(remove(product.getSpecificationsList(),
+                        specification.getSpecificationId(), Specifications::getSpecificationId));
+            }
+        }
+        for (Rating rating : delta.deletedRatings()) {
+            var product = changedProduct(current, changed, ratings, rating.getProductId(), missing);
+            if (product != null) {
+                var segment = ratings.get(product.getProductId());
+                int position = segment.indexOf(rating.getRatingId());
+                if (position >= 0) {
+                    product.removeRating(segment.get(position));
+                    ratings.put(product.getProductId(), segment.remove(position));
+                    ratingIds.remove(product.getProductId());
+                }
+            }
+        }
+        var deleted = new LinkedHashSet<String>();
+        for (String productId : delta.deletedProducts()) {
+            if (changed.containsKey(productId) || current.getById(productId) != null) {
+                deleted.add(productId);
+            } else {
+                missing.add(productId);
+            }
+        }
+        var next = current.apply(current.getVersion() + 1, new ArrayList<>(changed.values()), ratings, deleted);
+        int upserted = (int) changed.keySet().stream().filter(productId -> !deleted.contains(productId)).count();
+        return new Change(next, new CatalogChangeRecord(next.getVersion(), upserted, deleted.size(),
+                new ArrayList<>(missing)));
+    }
+
+    private Change appendRatings(CatalogSnapshot current, List<Rating> ratings) {
+        Map<String, List<Rating>> added = new LinkedHashMap<>();
+        var missing = new LinkedHashSet<String>();
+        for (Rating rating : ratings) {
+            if (rating.getProductId() == null) {
+                throw new InvalidDeltaException("Every specification and rating needs a productId");
+            }
+            if (current.getById(rating.getProductId()) == null) {
+                missing.add(rating.getProductId());
+                continue;
+            }
+            if (rating.getRatingId() == null) {
+                rating.setRatingId(UUID.randomUUID().toString());
+            }
+            added.computeIfAbsent(rating.getProductId(), productId -> new ArrayList<>()).add(rating);
+        }
+        List<Product> rated = new ArrayList<>(added.size());
+        Map<String, RatingSegment> segments = new HashMap<>();
+        added.forEach((productId, productRatings) -> {
+            var product = current.getById(productId).copy();
+            productRatings.forEach(product::addRating);
+            rated.add(product);
+            segments.put(productId, current.getRatings(productId).append(productRatings));
+        });
+        var next = rated.isEmpty() ? current : current.applyRatings(current.getVersion() + 1, rated, segments);
+        return new Change(next, new CatalogChangeRecord(next.getVersion(), rated.size(), 0,
+                new ArrayList<>(missing)));
     }
 
-    private Comparator<Product> getComparator(String sort){
-        return switch (sort) {
-            case "name" -> Comparator.comparing(Product::getName);
-            case "price" -> Comparator.comparing(Product::getPrice);
-            case "rating" -> Comparator.comparing(Product::getAverageRating);
-            default -> Comparator.comparing(Product::getDatCreation);
-        };
+    private void publishIfNewer(CatalogSnapshot next) {
+        snapshot.accumulateAndGet(next, (current, candidate) ->
+                current == null || candidate.getVersion() > current.getVersion() ? candidate : current);
     }
-    private List<Product> filterProductsByRatingMinMax(List<Product> productList, Double ratingMin, Double ratingMax) {
-        logger.info("Filtering products by rating min: {}, max: {}", ratingMin, ratingMax);
-        if (ratingMax == 5) {
-            return productList.stream()
-                    .filter(p -> p.getAverageRating() >= ratingMin)
-                    .toList();
+
+    // Called with writeLock held, so the checkpoint holds exactly the changes logged before it
+    private void checkpoint(CatalogSnapshot catalog) {
+        store.checkpoint(catalog).whenComplete((ignored, e) -> {
+            if (e != null) {
+                logger.error("Failed to write checkpoint of catalog version {}", catalog.getVersion(), e);
+            }
+        });
+    }
+
+    // For a catalog the log cannot recover to by itself, so it returns once the checkpoint is on disk
+    private void writeCheckpoint(CatalogSnapshot catalog) {
+        try {
+            store.checkpoint(catalog).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private byte[] writeChange(LoggedChange change) {
+        try {
+            return logMapper.writeValueAsBytes(change);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return productList.stream()
-                .filter(p -> p.getAverageRating() >= ratingMin && p.getAverageRating() <= ratingMax)
-                .toList();
     }
 
-    private List<Product> filterProductsByPriceMinMax(List<Product> productList, Double priceMin, Double priceMax) {
-        logger.info("Filtering products by price min: {}, max: {}", priceMin, priceMax);
-        if (priceMax == 0) {
-            return productList.stream()
-                    .filter(p -> p.getPrice() >= priceMin)
-                    .toList();
+    private LoggedChange readChange(byte[] change) {
+        try {
+            return logMapper.readValue(change, LoggedChange.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return productList.stream()
-                .filter(p -> p.getPrice() >= priceMin && p.getPrice() <= priceMax)
-                .toList();
     }
 
-    private List<Product> filterProductsByName(List<Product> productList, String productName) {
-        logger.info("Filtering products by name: {}", productName);
-        return productList.stream()
-                .filter(p -> p.getName().toLowerCase().contains(productName.toLowerCase()))
-                .toList();
+    // Product of the delta to modify: the upserted one, or a copy of the published one along with its ratings
+    private static Product changedProduct(CatalogSnapshot current, Map<String, Product> changed,
+            Map<String, RatingSegment> ratings, String productId, Set<String> missing) {
+        if (productId == null) {
+            throw new InvalidDeltaException("Every specification and rating needs a productId");
+        }
+        var product = changed.get(productId);
+        if (product == null) {
+            var published = current.getById(productId);
+            if (published == null) {
+                missing.add(productId);
+                return null;
+            }
+            product = published.copy();
+            changed.put(productId, product);
+            ratings.put(productId, current.getRatings(productId));
+        }
+        return product;
     }
 
-    private List<Product> filterProductsBySpecifications(List<Product> productList, String specifications) {
-        logger.info("Filtering products by specifications: {}", specifications);
-        if (specifications == null || specifications.trim().isEmpty()) {
-            return productList;
+    // Copy of the list with the element that has the same id replaced, or with the element appended
+    private static <T> List<T> upsert(List<T> list, T element, Function<T, String> id) {
+        var result = list == null ? new ArrayList<T>() : new ArrayList<>(list);
+        for (int i = 0; i < result.size(); i++) {
+            if (Objects.equals(id.apply(result.get(i)), id.apply(element))) {
+                result.set(i, element);
+                return result;
+            }
         }
+        result.add(element);
+        return result;
+    }
 
-        Map<String, String> specificationMap = Arrays.stream(specifications.split(";"))
-                .map(s -> s.split(":"))
-                .filter(spec -> spec.length == 2)
-                .collect(Collectors.toMap(spec -> spec[0], spec -> spec[1]));
+    private static Set<String> ratingIds(RatingSegment segment) {
+        var ids = new HashSet<String>();
+        segment.asList().forEach(rating -> ids.add(rating.getRatingId()));
+        return ids;
+    }
 
-        return productList.stream()
-                .filter(product -> specificationMap.entrySet().stream()
-                        .allMatch(entry -> product.getSpecificationsList().stream()
-                                .anyMatch(ps -> ps.getKey().equalsIgnoreCase(entry.getKey()) &&
-                                        ps.getValue().toLowerCase().contains(entry.getValue().toLowerCase()))))
-                .toList();
+    private static <T> List<T> remove(List<T> list, String elementId, Function<T, String> id) {
+        var result = list == null ? new ArrayList<T>() : new ArrayList<>(list);
+        result.removeIf(element -> Objects.equals(id.apply(element), elementId));
+        return result;
+    }
+
+    @Override
+    public List<Product> getProducts(Integer page, Integer size, String sort, String direction) {
+        logger.info("Retrieving products with page: {}, size: {}, sort: {}, direction: {}", page, size, sort, direction);
+        boolean descending = "DESC".equalsIgnoreCase(direction);
+        return currentSnapshot().page(SortKey.from(sort), descending, page, size);
+    }
+
+    @Override
+    public CursorPage getProductsAfter(String cursor, Integer size, String sort, String direction) {
+        logger.info("Retrieving products after cursor: {}, size: {}, sort: {}, direction: {}", cursor, size, sort,
+                direction);
+        // A cursor carries its own order, sort and direction only apply to the first page
+        var after = cursor == null || cursor.isEmpty() ? null : PageCursor.decode(cursor);
+        var key = after != null ? after.key() : SortKey.from(sort);
+        boolean descending = after != null ? after.descending() : "DESC".equalsIgnoreCase(direction);
+        var products = currentSnapshot().pageAfter(key, descending, after, size);
+        String nextCursor = products.isEmpty() || products.size() < size ? null
+                : PageCursor.after(key, descending, products.get(products.size() - 1)).encode();
+        return new CursorPage(products, nextCursor);
+    }
+
+    @Override
+    public long getCatalogVersion() {
+        return currentSnapshot().getVersion();
+    }
+
+    @Override
+    public long getCatalogContentVersion() {
+        return currentSnapshot().getContentVersion();
+    }
+
+    @Override
+    public long getCatalogContentHash() {
+        return currentSnapshot().getContentHash();
+    }
+
+    @Override
+    public List<Product> getProducts() {
+        return currentSnapshot().getProducts();
+    }
+
+    @Override
+    public Product getProductById(String productId) {
+        return currentSnapshot().getById(productId);
+    }
+
+    @Override
+    public ProductBatch getProductsByIds(List<String> productIds) {
+        logger.info("Retrieving {} products by id", productIds.size());
+        var catalog = currentSnapshot();
+        var products = new ArrayList<Product>(productIds.size());
+        var missing = new ArrayList<String>();
+        for (String productId : new LinkedHashSet<>(productIds)) {
+            var product = catalog.getById(productId);
+            if (product != null) {
+                products.add(product);
+            } else {
+                missing.add(productId);
+            }
+        }
+        return new ProductBatch(products, missing);
+    }
+
+    @Override
+    public RatingPage getRatings(String productId, String cursor, Integer size, String sort, String direction) {
+        logger.info("Retrieving ratings of product: {} after cursor: {}, size: {}, sort: {}, direction: {}", productId,
+                cursor, size, sort, direction);
+        var segment = currentSnapshot().getRatings(productId);
+        if (segment == null) {
+            return null;
+        }
+        var after = cursor == null || cursor.isEmpty() ? null : RatingCursor.decode(cursor);
+        var ratingSort = after != null ? after.sort() : RatingSort.from(sort);
+        boolean descending = after != null ? after.descending() : "DESC".equalsIgnoreCase(direction);
+        int[] positions = segment.positions(ratingSort, descending, after, size);
+        var ratings = new ArrayList<RatingRecord>(positions.length);
+        for (int position : positions) {
+            ratings.add(RatingRecord.of(segment.get(position)));
+        }
+        String nextCursor = positions.length == 0 || positions.length < size ? null
+                : segment.cursorAt(ratingSort, descending, positions[positions.length - 1]).encode();
+        return new RatingPage(ratings, nextCursor);
+    }
+
+    @Override
+    public List<Product> getProductsByParams(String productName, String specifications,
+            Double ratingMin, Double ratingMax, Double priceMin, Double priceMax){
+        logger.info("Searching products by params: {}, {}, {}, {}, {}, {}", productName, specifications, ratingMin, ratingMax, priceMin, priceMax);
+        var catalog = currentSnapshot();
+        var productList = catalog.select(catalog.search(
+                SearchQuery.of(productName, specifications, ratingMin, ratingMax, priceMin, priceMax)));
+        logger.info("Found {} products matching the criteria", productList.size());
+        return productList;
+    }
+
+    @Override
+    public Stream<Product> streamProductsByParams(String productName, String specifications, Double ratingMin,
+            Double ratingMax, Double priceMin, Double priceMax) {
+        logger.info("Streaming products by params: {}, {}, {}, {}, {}, {}", productName, specifications, ratingMin,
+                ratingMax, priceMin, priceMax);
+        var catalog = currentSnapshot();
+        return catalog.stream(catalog.search(SearchQuery.of(productName, specifications, ratingMin, ratingMax,
+                priceMin, priceMax)));
+    }
+
+    @Override
+    public ProductPage searchProducts(String productName, String specifications, Double ratingMin, Double ratingMax,
+            Double priceMin, Double priceMax, Integer page, Integer size, String sort, String direction) {
+        logger.info("Searching products by params: {}, {}, {}, {}, {}, {} with page: {}, size: {}, sort: {}, direction: {}",
+                productName, specifications, ratingMin, ratingMax, priceMin, priceMax, page, size, sort, direction);
+        var catalog = currentSnapshot();
+        var matches = catalog.search(
+                SearchQuery.of(productName, specifications, ratingMin, ratingMax, priceMin, priceMax));
+        boolean descending = "DESC".equalsIgnoreCase(direction);
+        var products = catalog.page(matches, SortKey.from(sort), descending, page, size);
+        logger.info("Found {} products matching the criteria", matches.cardinality());
+        return new ProductPage(products, matches.cardinality());
+    }
+
+    @Override
+    public QueryPlanRecord explainProductsByParams(String productName, String specifications,
+            Double ratingMin, Double ratingMax, Double priceMin, Double priceMax) {
+        var plan = currentSnapshot().explain(
+                SearchQuery.of(productName, specifications, ratingMin, ratingMax, priceMin, priceMax));
+        logger.info("Search plan: {}", plan);
+        return plan;
     }
 
 }
@@ -0,0 +1,26 @@
+package org.example.productlist.controller;
+
+import org.example.productlist.model.entity.Product;
+import org.example.productlist.service.ProductView;
+
+import java.util.Arrays;
+
+/**
+ * Strong ETags for product responses. A product's tag is the hash of its content and the view it is served in; a
+ * list's tag is the content hash of the catalog and a hash of the normalized query. Tags only depend on content, so
+ * they stay valid across reloads, restarts and instances serving the same catalog.
+ */
+final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    static String product(Product product, ProductView view) {
+        return "\"" + Long.toHexString(product.getContentHash()) + "-" + view.name().toLowerCase() + "\"";
+    }
+
+    static String query(long catalogContentHash, Object... arguments) {
+        return "\"" + Long.toHexString(catalogContentHash) + "-" + Integer.toHexString(Arrays.hashCode(arguments))
+                + "\"";
+    }
+}
@@ -6,20 +6,41 @@ import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.example.productlist.exception.InvalidCursorException;
+import org.example.productlist.exception.InvalidDeltaException;
 import org.example.productlist.exception.ProductNotFoundException;
+import org.example.productlist.exception.RatingQueueFullException;
+import org.example.productlist.model.entity.Product;
+import org.example.productlist.model.records.CatalogChangeRecord;
+import org.example.productlist.model.records.CatalogDeltaRecord;
+import org.example.productlist.model.records.ProductBatch;
+import org.example.productlist.model.records.QueryPlanRecord;
+import org.example.productlist.model.records.RatingRecord;
 import org.example.productlist.model.records.ResponseMessage;
+import org.example.productlist.service.ProductExporter;
+import org.example.productlist.service.ProductJsonCache;
 import org.example.productlist.service.ProductService;
+import org.example.productlist.service.ProductView;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.example.productlist.utils.StringConstants.ERROR_RESPONSE;
 import static org.example.productlist.utils.StringConstants.LIST_OF_PRODUCTS;
@@ -33,21 +54,38 @@ import static org.springframework.http.ResponseEntity.ok;
 @RequestMapping("/products")
 public class ProductController {
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductJsonCache productJsonCache,
+            ProductExporter productExporter) {
         this.productService = productService;
+        this.productJsonCache = productJsonCache;
+        this.productExporter = productExporter;
     }
 
     private ProductService productService;
+    private final ProductJsonCache productJsonCache;
+    private final ProductExporter productExporter;
+
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String RATING_QUEUE_DEPTH_HEADER = "X-Rating-Queue-Depth";
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final int MAX_RATING_PAGE_SIZE = 100;
+    private static final double MIN_SCORE = 1;
+    private static final double MAX_SCORE = 5;
 
     private final Logger logger = LoggerFactory.getLogger(ProductController.class);
 
     @GetMapping
-    @Operation(summary = "List of Products", description = "Retrieve a paginated list of products with optional sorting")
+    @Operation(summary = "List of Products", description = "Retrieve a paginated list of products with optional sorting. Passing a cursor, empty for the first page, switches to keyset pagination: the page follows the cursor and the X-Next-Cursor header holds the cursor of the next page. view=summary returns ProductSummaryRecord entries without specifications and ratings")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful retrieval of products",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = org.example.productlist.model.records.ProductRecord.class),
                             examples = @ExampleObject(name = "Products", value = LIST_OF_PRODUCTS))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseMessage.class))),
             @ApiResponse(responseCode = "500", description = "Internal server error",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ResponseMessage.class),
@@ -55,18 +93,109 @@ public class ProductController {
     public ResponseEntity<?> getProducts(@RequestParam(value = "page", defaultValue = "0") Integer page,
             @RequestParam(value = "size", defaultValue = "10") Integer size,
             @RequestParam(value = "sort", defaultValue = "datCreation") String sort,
-            @RequestParam(value = "direction", defaultValue = "DESC") String direction) {
-        logger.info("Retrieving products with page: {}, size: {}, sort: {}, direction: {}", page, size, sort,
-                direction);
-        return ResponseEntity.ok(productService.getProducts(page, size, sort, direction));
+            @RequestParam(value = "direction", defaultValue = "DESC") String direction,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "view", defaultValue = "full") String view, WebRequest request) {
+        logger.info("Retrieving products with page: {}, size: {}, sort: {}, direction: {}, cursor: {}, view: {}", page,
+                size, sort, direction, cursor, view);
+        var productView = ProductView.from(view);
+        if (request.checkNotModified(EntityTags.query(productService.getCatalogContentHash(), page, size, sort,
+                direction, cursor, productView.name()))) {
+            return null;
+        }
+        if (cursor == null) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(productJsonCache.json(productService.getProducts(page, size, sort, direction),
+                            productView));
+        }
+        try {
+            var cursorPage = productService.getProductsAfter(cursor, size, sort, direction);
+            var response = ResponseEntity.ok();
+            if (cursorPage.nextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, cursorPage.nextCursor());
+            }
+            return response.contentType(MediaType.APPLICATION_JSON)
+                    .body(productJsonCache.json(cursorPage.products(), productView));
+        } catch (InvalidCursorException e) {
+            var responseMessage = new ResponseMessage(e.getMessage(),
+                    String.valueOf(HttpStatus.BAD_REQUEST.value()), LocalDateTime.now().toString());
+            logger.error("Invalid cursor: {}", responseMessage);
+            return ResponseEntity.badRequest().body(responseMessage);
+        }
     }
 
-    @Operation(summary = "Product by ID", description = "Retrieve a product by ID")
+    @Operation(summary = "Export Products", description = "Stream every product matching the optional filters as newline-delimited JSON, one product per line, in catalog order. view=summary exports ProductSummaryRecord entries")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products streamed as NDJSON",
+                    content = @Content(mediaType = "application/x-ndjson",
+                            schema = @Schema(implementation = org.example.productlist.model.records.ProductRecord.class))) })
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(value = "name", defaultValue = "") String name,
+            @RequestParam(value = "specifications", defaultValue = "") String specifications,
+            @RequestParam(value = "ratingMin", defaultValue = "0") Double ratingMin,
+            @RequestParam(value = "ratingMax", defaultValue = "5") Double ratingMax,
+            @RequestParam(value = "priceMin", defaultValue = "0") Double priceMin,
+            @RequestParam(value = "priceMax", defaultValue = "0") Double priceMax,
+            @RequestParam(value = "view", defaultValue = "full") String view) {
+        logger.info(
+                "Exporting products with name: {}, specifications: {}, ratingMin: {}, ratingMax: {}, priceMin: {}, priceMax: {}, view: {}",
+                name, specifications, ratingMin, ratingMax, priceMin, priceMax, view);
+        // Resolved on the request thread so the whole export reads one catalog snapshot
+        var products = productService.exportProductsByParams(name, specifications, ratingMin, ratingMax, priceMin,
+                priceMax);
+        var productView = ProductView.from(view);
+        StreamingResponseBody body = out -> {
+            long count = productExporter.write(products, productView, out);
+            logger.info("Exported {} products", count);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @Operation(summary = "Products by IDs", description = "Resolve up to 500 product IDs in one request. Found products are returned in request order and unknown IDs are listed in missing. view=summary returns ProductSummaryRecord entries")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products found and IDs missing",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ProductBatch.class))),
+            @ApiResponse(responseCode = "400", description = "No IDs or more than 500 IDs",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseMessage.class))) })
+    @PostMapping("/batch")
+    public ResponseEntity<?> getProductsByIds(@RequestBody List<String> productIds,
+            @RequestParam(value = "view", defaultValue = "full") String view) {
+        return productBatch(productIds, view);
+    }
+
+    @Operation(summary = "Products by IDs", description = "Resolve the comma-separated product IDs, same as POST /products/batch")
+    @GetMapping("/batch")
+    public ResponseEntity<?> getProductsByIdsParam(@RequestParam("ids") List<String> productIds,
+            @RequestParam(value = "view", defaultValue = "full") String view) {
+        return productBatch(productIds, view);
+    }
+
+    private ResponseEntity<?> productBatch(List<String> productIds, String view) {
+        logger.info("Retrieving products by IDs: {}, view: {}", productIds, view);
+        if (productIds == null || productIds.isEmpty() || productIds.size() > MAX_BATCH_SIZE) {
+            var responseMessage = new ResponseMessage("Between 1 and " + MAX_BATCH_SIZE + " product IDs are required",
+                    String.valueOf(HttpStatus.BAD_REQUEST.value()), LocalDateTime.now().toString());
+            logger.error("Invalid product batch: {}", responseMessage);
+            return ResponseEntity.badRequest().body(responseMessage);
+        }
+        var batch = productService.getProductsByIds(productIds);
+        var productView = ProductView.from(view);
+        logger.info("Products found: {}, missing: {}", batch.products().size(), batch.missing().size());
+        StreamingResponseBody body = out -> productJsonCache.write(batch, productView, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @Operation(summary = "Product by ID", description = "Retrieve a product by ID. view=summary returns a ProductSummaryRecord without specifications and ratings")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful retrieval of product",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = org.example.productlist.model.records.ProductRecord.class),
                             examples = @ExampleObject(name = "Product", value = PRODUCT_RESPONSE))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Product Not Found",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ResponseMessage.class),
@@ -80,7 +209,8 @@ public class ProductController {
 
     })
     @GetMapping("/{productId}")
-    public ResponseEntity<?> getProductById(@PathVariable("productId") String productId) {
+    public ResponseEntity<?> getProductById(@PathVariable("productId") String productId,
+            @RequestParam(value = "view", defaultValue = "full") String view, WebRequest request) {
         logger.info("Retrieving product with ID: {}", productId);
         if (productId == null) {
             var responseMessage = new ResponseMessage("Product ID cannot be null",
@@ -94,7 +224,13 @@ public class ProductController {
                 throw new ProductNotFoundException("Product with ID " + productId + " not found");
             }
             logger.info("Product found for ID: {}", productId);
-            return ok(product);
+            var productView = ProductView.from(view);
+            if (request.checkNotModified(EntityTags.product(product, productView))) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(productJsonCache.json(product, productView));
         } catch (ProductNotFoundException e) {
             var responseMessage = new ResponseMessage("Product not found for ID: " + productId,
                     String.valueOf(HttpStatus.NOT_FOUND.value()), LocalDateTime.now().toString());
@@ -108,12 +244,60 @@ public class ProductController {
         }
     }
 
-    @Operation(summary = "Product Search by Params", description = "Retrieve a paginated list of products by name, specifications, rating and price")
+    @Operation(summary = "Product Ratings", description = "Retrieve a page of a product's ratings, most recent first or sorted by score. The X-Next-Cursor header holds the cursor of the next page")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful retrieval of ratings",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = RatingRecord.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseMessage.class))),
+            @ApiResponse(responseCode = "404", description = "Product Not Found",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseMessage.class),
+                            examples = @ExampleObject(name = "Product Not Found", value = NOT_FOUND_PRODUCT))) })
+    @GetMapping("/{productId}/ratings")
+    public ResponseEntity<?> getRatings(@PathVariable("productId") String productId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") Integer size,
+            @RequestParam(value = "sort", defaultValue = "recent") String sort,
+            @RequestParam(value = "direction", defaultValue = "DESC") String direction) {
+        logger.info("Retrieving ratings of product: {} with cursor: {}, size: {}, sort: {}, direction: {}", productId,
+                cursor, size, sort, direction);
+        if (size < 1 || size > MAX_RATING_PAGE_SIZE) {
+            var responseMessage = new ResponseMessage("Between 1 and " + MAX_RATING_PAGE_SIZE
+                    + " ratings per page are allowed", String.valueOf(HttpStatus.BAD_REQUEST.value()),
+                    LocalDateTime.now().toString());
+            logger.error("Invalid rating page size: {}", responseMessage);
+            return ResponseEntity.badRequest().body(responseMessage);
+        }
+        try {
+            var ratingPage = productService.getRatings(productId, cursor, size, sort, direction);
+            var response = ResponseEntity.ok();
+            if (ratingPage.nextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, ratingPage.nextCursor());
+            }
+            return response.body(ratingPage.ratings());
+        } catch (InvalidCursorException e) {
+            var responseMessage = new ResponseMessage(e.getMessage(),
+                    String.valueOf(HttpStatus.BAD_REQUEST.value()), LocalDateTime.now().toString());
+            logger.error("Invalid cursor: {}", responseMessage);
+            return ResponseEntity.badRequest().body(responseMessage);
+        } catch (ProductNotFoundException e) {
+            var responseMessage = new ResponseMessage("Product not found for ID: " + productId,
+                    String.valueOf(HttpStatus.NOT_FOUND.value()), LocalDateTime.now().toString());
+            logger.error("Product not found for ID: {}", responseMessage);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(responseMessage);
+        }
+    }
+
+    @Operation(summary = "Product Search by Params", description = "Retrieve a paginated list of products by name, specifications, rating and price, with optional sorting. The total number of matches is returned in the X-Total-Count header. view=summary returns ProductSummaryRecord entries without specifications and ratings")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful retrieval of product",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = org.example.productlist.model.records.ProductRecord.class),
                             examples = @ExampleObject(name = "Product", value = LIST_OF_PRODUCTS))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Product Not Found",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ResponseMessage.class),
@@ -131,10 +315,16 @@ public class ProductController {
             @RequestParam(value = "ratingMin", defaultValue = "0") Double ratingMin,
             @RequestParam(value = "ratingMax", defaultValue = "5") Double ratingMax,
             @RequestParam(value = "priceMin", defaultValue = "0") Double priceMin,
-            @RequestParam(value = "priceMax", defaultValue = "0") Double priceMax) {
+            @RequestParam(value = "priceMax", defaultValue = "0") Double priceMax,
+            @RequestParam(value = "page", defaultValue = "0") Integer page,
+            @RequestParam(value = "size", defaultValue = "10") Integer size,
+            @RequestParam(value = "sort", defaultValue = "datCreation") String sort,
+            @RequestParam(value = "direction", defaultValue = "DESC") String direction,
+            @RequestParam(value = "view", defaultValue = "full") String view, WebRequest request) {
         logger.info(
-                "Searching products with name: {}, specifications: {}, ratingMin: {}, ratingMax: {}, priceMin: {}, priceMax: {}",
-                name, specifications, ratingMin, ratingMax, priceMin, priceMax);
+                "Searching products with name: {}, specifications: {}, ratingMin: {}, ratingMax: {}, priceMin: {}, priceMax: {}, page: {}, size: {}, sort: {}, direction: {}",
+                name, specifications, ratingMin, ratingMax, priceMin, priceMax, page, size, sort, direction);
+        var productView = ProductView.from(view);
         if (name == null || name.isEmpty()) {
             var responseMessage = new ResponseMessage("Product name cannot be null or empty",
                     String.valueOf(HttpStatus.BAD_REQUEST.value()), LocalDateTime.now().toString());
@@ -142,14 +332,21 @@ public class ProductController {
             return ResponseEntity.badRequest().body(responseMessage);
         }
 
+        if (request.checkNotModified(EntityTags.query(productService.getCatalogContentHash(), name, specifications,
+                ratingMin, ratingMax, priceMin, priceMax, page, size, sort, direction, productView.name()))) {
+            return null;
+        }
         try {
-            var products = productService.searchProductsByParams(name, specifications, ratingMin, ratingMax, priceMin,
-                    priceMax);
-            if (products == null || products.isEmpty()) {
+            var productPage = productService.searchProductsByParams(name, specifications, ratingMin, ratingMax,
+                    priceMin, priceMax, page, size, sort, direction);
+            if (productPage == null || productPage.totalCount() == 0) {
                 throw new ProductNotFoundException("No products found matching the criteria");
             }
-            logger.info("Products found matching the criteria");
-            return ok(products);
+            logger.info("Products found matching the criteria: {}", productPage.totalCount());
+            return ResponseEntity.ok()
+                    .header(TOTAL_COUNT_HEADER, String.valueOf(productPage.totalCount()))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(productJsonCache.json(productPage.products(), productView));
         } catch (ProductNotFoundException e) {
             var responseMessage = new ResponseMessage("No products found matching the criteria",
                     String.valueOf(HttpStatus.NOT_FOUND.value()), LocalDateTime.now().toString());
@@ -163,4 +360,147 @@ public class ProductController {
 
     }
 
+    @Operation(summary = "Product Search Plan", description = "Explain how a product search is executed: the order of its filters, their estimated matches and the time spent in each stage")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful execution of the search plan",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = QueryPlanRecord.class))),
+            @ApiResponse(responseCode = "500", description = "Internal server error",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseMessage.class),
+                            examples = @ExampleObject(name = "Error", value = ERROR_RESPONSE))) })
+    @GetMapping("/search/explain")
+    public ResponseEntity<?> explainProductSearchByParams(@RequestParam(value = "name", defaultValue = "") String name,
+            @RequestParam(value = "specifications", defaultValue = "") String specifications,
+            @RequestParam(value = "ratingMin", defaultValue = "0") Double ratingMin,
+            @RequestParam(value = "ratingMax", defaultValue = "5") Double ratingMax,
+            @RequestParam(value = "priceMin", defaultValue = "0") Double priceMin,
+            @RequestParam(value = "priceMax", defaultValue = "0") Double priceMax) {
+        logger.info(
+                "Explaining search with name: {}, specifications: {}, ratingMin: {}, ratingMax: {}, priceMin: {}, priceMax: {}",
+                name, specifications, ratingMin, ratingMax, priceMin, priceMax);
+        try {
+            return ok(productService.explainSearchByParams(name, specifications, ratingMin, ratingMax, priceMin,
+                    priceMax));
+        } catch (Exception e) {
+            var responseMessage = new ResponseMessage("Internal server error",
+                    String.valueOf(HttpStatus.INTERNAL_SERVER_ERROR.value()), LocalDateTime.now().toString());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(responseMessage);
+        }
+    }
+
+    @Operation(summary = "Apply Catalog Delta", description = "Upsert and delete products, specifications and ratings as one new catalog version. Only the index entries of the changed products are rebuilt and reads are never blocked. Ids that match no product are listed in missing")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Delta applied",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = CatalogChangeRecord.class))),
+            @ApiResponse(responseCode = "400", description = "A product, specification or rating without productId",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseMessage.class))) })
+    @PostMapping("/delta")
+    public ResponseEntity<?> applyDelta(@RequestBody CatalogDeltaRecord delta) {
+        return catalogChange(delta);
+    }
+
+    @Operation(summary = "Upsert Product", description = "Replace the product with the given ID, or add it when the ID is new. A body without ratingList keeps the ratings the product has")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Product stored",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = CatalogChangeRecord.class))),
+            @ApiResponse(responseCode = "400", description = "Product ID of the body differs from the path",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseMessage.class))) })
+    @PutMapping("/{productId}")
+    public ResponseEntity<?> upsertProduct(@PathVariable("productId") String productId, @RequestBody Product product) {
+        if (product.getProductId() == null) {
+            product.setProductId(productId);
+        }
+        if (!productId.equals(product.getProductId())) {
+            var responseMessage = new ResponseMessage("Product ID of the body differs from the path",
+                    String.valueOf(HttpStatus.BAD_REQUEST.value()), LocalDateTime.now().toString());
+            logger.error("Invalid product upsert: {}", responseMessage);
+            return ResponseEntity.badRequest().body(responseMessage);
+        }
+        return catalogChange(new CatalogDeltaRecord(List.of(product), null, null, null, null, null));
+    }
+
+    @Operation(summary = "Delete Product", description = "Remove the product with the given ID from the catalog")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Product removed",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = CatalogChangeRecord.class))),
+            @ApiResponse(responseCode = "404", description = "Product Not Found",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseMessage.class),
+                            examples = @ExampleObject(name = "Product Not Found", value = NOT_FOUND_PRODUCT))) })
+    @DeleteMapping("/{productId}")
+    public ResponseEntity<?> deleteProduct(@PathVariable("productId") String productId) {
+        var change = productService.applyDelta(new CatalogDeltaRecord(null, null, null, null, null,
+                List.of(productId)));
+        if (change.deleted() == 0) {
+            var responseMessage = new ResponseMessage("Product not found for ID: " + productId,
+                    String.valueOf(HttpStatus.NOT_FOUND.value()), LocalDateTime.now().toString());
+            logger.error("Product not found for ID: {}", responseMessage);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(responseMessage);
+        }
+        return ok(change);
+    }
+
+    @Operation(summary = "Submit Rating", description = "Queue a rating of the product and return it with its new ID without waiting for it to be stored. Queued ratings are applied in batches and show up in the product shortly after. The X-Rating-Queue-Depth header holds the number of ratings waiting")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Rating queued",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = RatingRecord.class))),
+            @ApiResponse(responseCode = "400", description = "Score missing or outside 1 to 5",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseMessage.class))),
+            @ApiResponse(responseCode = "404", description = "Product Not Found",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseMessage.class),
+                            examples = @ExampleObject(name = "Product Not Found", value = NOT_FOUND_PRODUCT))),
+            @ApiResponse(responseCode = "503", description = "Ratings cannot be stored right now",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseMessage.class))) })
+    @PostMapping("/{productId}/ratings")
+    public ResponseEntity<?> submitRating(@PathVariable("productId") String productId,
+            @RequestBody RatingRecord rating) {
+        if (rating.score() == null || rating.score() < MIN_SCORE || rating.score() > MAX_SCORE) {
+            var responseMessage = new ResponseMessage("Score must be between 1 and 5",
+                    String.valueOf(HttpStatus.BAD_REQUEST.value()), LocalDateTime.now().toString());
+            logger.error("Invalid rating: {}", responseMessage);
+            return ResponseEntity.badRequest().body(responseMessage);
+        }
+        try {
+            var queued = productService.submitRating(productId, rating);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(RATING_QUEUE_DEPTH_HEADER, String.valueOf(productService.getRatingQueueDepth()))
+                    .body(queued);
+        } catch (ProductNotFoundException e) {
+            var responseMessage = new ResponseMessage("Product not found for ID: " + productId,
+                    String.valueOf(HttpStatus.NOT_FOUND.value()), LocalDateTime.now().toString());
+            logger.error("Product not found for ID: {}", responseMessage);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(responseMessage);
+        } catch (RatingQueueFullException e) {
+            var responseMessage = new ResponseMessage(e.getMessage(),
+                    String.valueOf(HttpStatus.SERVICE_UNAVAILABLE.value()), LocalDateTime.now().toString());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .header(RATING_QUEUE_DEPTH_HEADER, String.valueOf(productService.getRatingQueueDepth()))
+                    .body(responseMessage);
+        }
+    }
+
+    private ResponseEntity<?> catalogChange(CatalogDeltaRecord delta) {
+        try {
+            var change = productService.applyDelta(delta);
+            logger.info("Catalog changed: {}", change);
+            return ok(change);
+        } catch (InvalidDeltaException e) {
+            var responseMessage = new ResponseMessage(e.getMessage(),
+                    String.valueOf(HttpStatus.BAD_REQUEST.value()), LocalDateTime.now().toString());
+            logger.error("Invalid catalog delta: {}", responseMessage);
+            return ResponseEntity.badRequest().body(responseMessage);
+        }
+    }
+
 }
@@ -0,0 +1,7 @@
+package org.example.productlist.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.productlist.exception;
+
+public class InvalidDeltaException extends RuntimeException {
+    public InvalidDeltaException(String message) {
+        super(message);
+    }
+}
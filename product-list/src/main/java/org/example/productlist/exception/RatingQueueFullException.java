@@ -0,0 +1,7 @@
+package org.example.productlist.exception;
+
+public class RatingQueueFullException extends RuntimeException {
+    public RatingQueueFullException(String message) {
+        super(message);
+    }
+}
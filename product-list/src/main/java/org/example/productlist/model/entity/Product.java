@@ -1,12 +1,19 @@
 package org.example.productlist.model.entity;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Product {
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
     private String productId;
     private String name;
     private Double price;
@@ -15,7 +22,15 @@ public class Product {
     private String description;
     private String imageUrl;
     private List<Specifications> specificationsList;
+    // Null once the catalog moved the ratings to a rating segment, the aggregates still count them
     private List<Rating> ratingList;
+    // Running aggregates of the ratings, kept in sync by setRatingList, addRating and removeRating
+    private int ratingCount;
+    private double ratingSum;
+    private double averageRating;
+    // Stamped after every change so cached representations of this product can tell they are stale. Stamps come
+    // from one counter, so a reloaded product never reuses the stamp of the instance it replaces
+    private volatile long version;
 
     @JsonCreator
     public Product(@JsonProperty("productId") String productId,
@@ -35,19 +50,143 @@ public class Product {
         this.description = description;
         this.imageUrl = imageUrl;
         this.specificationsList = specificationsList;
-        this.ratingList = ratingList;
+        setRatingList(ratingList);
+    }
+
+    private Product(Product product) {
+        this.productId = product.productId;
+        this.name = product.name;
+        this.price = product.price;
+        this.datCreation = product.datCreation;
+        this.datUpdate = product.datUpdate;
+        this.description = product.description;
+        this.imageUrl = product.imageUrl;
+        this.specificationsList = product.specificationsList;
+        this.ratingList = product.ratingList;
+        this.ratingCount = product.ratingCount;
+        this.ratingSum = product.ratingSum;
+        this.averageRating = product.averageRating;
+        this.version = VERSIONS.incrementAndGet();
+    }
+
+    /**
+     * Copy to change without touching this product. Lists are shared and the aggregates carried over, so the cost
+     * does not depend on the number of ratings.
+     */
+    public Product copy() {
+        return new Product(this);
+    }
+
+    /**
+     * Copy of this product with the ratings and aggregates of {@code rated} instead of its own, for a new version of
+     * a product that keeps the ratings it already has.
+     */
+    public Product withRatingsOf(Product rated) {
+        var copy = new Product(this);
+        copy.ratingList = rated.ratingList;
+        copy.ratingCount = rated.ratingCount;
+        copy.ratingSum = rated.ratingSum;
+        copy.averageRating = rated.averageRating;
+        return copy;
+    }
+
+    /**
+     * Hands the ratings over to whoever stores them from now on and drops them from the product, which keeps their
+     * aggregates.
+     */
+    public List<Rating> detachRatings() {
+        var ratings = ratingList;
+        ratingList = null;
+        version = VERSIONS.incrementAndGet();
+        return ratings;
+    }
+
+    // Derived from the ratings, a value sent by a client is ignored
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public double getAverageRating() {
+        return averageRating;
+    }
+
+    @JsonIgnore
+    public int getRatingCount() {
+        return ratingCount;
+    }
+
+    @JsonIgnore
+    public long getVersion() {
+        return version;
     }
 
-    public Double getAverageRating() {
-        if (ratingList == null || ratingList.isEmpty()) {
-            return 0.0;
+    /**
+     * Hash of everything a response shows of this product. Unlike the version it is the same for the same content in
+     * every process, so it survives reloads and restarts.
+     */
+    @JsonIgnore
+    public long getContentHash() {
+        long hash = mix(0, Objects.hashCode(productId));
+        hash = mix(hash, Objects.hashCode(name));
+        hash = mix(hash, Objects.hashCode(price));
+        hash = mix(hash, datCreation == null ? 0 : datCreation.getTime());
+        hash = mix(hash, datUpdate == null ? 0 : datUpdate.getTime());
+        hash = mix(hash, Objects.hashCode(description));
+        hash = mix(hash, Objects.hashCode(imageUrl));
+        if (specificationsList != null) {
+            for (Specifications specification : specificationsList) {
+                hash = mix(hash, Objects.hashCode(specification.getSpecificationId()));
+                hash = mix(hash, Objects.hashCode(specification.getKey()));
+                hash = mix(hash, Objects.hashCode(specification.getValue()));
+            }
+            hash = mix(hash, specificationsList.size());
         }
-        // Average score of all ratings
-        var rating = ratingList.stream()
-                .mapToDouble(Rating::getScore)
-                .average()
-                .orElse(0.0);
-        return Math.round(rating * 100.0) / 100.0;
+        hash = mix(hash, Double.hashCode(averageRating));
+        // Final avalanche of MurmurHash3, so that sums of these hashes stay well spread
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static long mix(long hash, long value) {
+        return (hash + value) * 0x9e3779b97f4a7c15L;
+    }
+
+    /**
+     * Adds the rating to the aggregates, and to the rating list while the product still has one.
+     */
+    public void addRating(Rating rating) {
+        if (ratingList != null) {
+            if (!(ratingList instanceof ArrayList)) {
+                ratingList = new ArrayList<>(ratingList);
+            }
+            ratingList.add(rating);
+        }
+        if (rating.getScore() != null) {
+            updateAggregates(1, rating.getScore());
+        }
+        version = VERSIONS.incrementAndGet();
+    }
+
+    /**
+     * Takes a rating of this product out of the aggregates, and out of the rating list while the product still has
+     * one.
+     */
+    public void removeRating(Rating rating) {
+        if (ratingList != null) {
+            if (!(ratingList instanceof ArrayList)) {
+                ratingList = new ArrayList<>(ratingList);
+            }
+            ratingList.remove(rating);
+        }
+        if (rating.getScore() != null) {
+            updateAggregates(-1, -rating.getScore());
+        }
+        version = VERSIONS.incrementAndGet();
+    }
+
+    private void updateAggregates(int countDelta, double sumDelta) {
+        ratingCount += countDelta;
+        ratingSum = ratingCount == 0 ? 0 : ratingSum + sumDelta;
+        // Average score of all ratings, rounded to two decimals
+        averageRating = ratingCount == 0 ? 0.0 : Math.round(ratingSum / ratingCount * 100.0) / 100.0;
     }
 
     public Double getPrice() {
@@ -56,6 +195,7 @@ public class Product {
 
     public void setPrice(Double price) {
         this.price = price;
+        version = VERSIONS.incrementAndGet();
     }
 
     public String getProductId() {
@@ -64,6 +204,7 @@ public class Product {
 
     public void setProductId(String productId) {
         this.productId = productId;
+        version = VERSIONS.incrementAndGet();
     }
 
     public String getName() {
@@ -72,6 +213,7 @@ public class Product {
 
     public void setName(String name) {
         this.name = name;
+        version = VERSIONS.incrementAndGet();
     }
 
     public Date getDatCreation() {
@@ -80,6 +222,7 @@ public class Product {
 
     public void setDatCreation(Date datCreation) {
         this.datCreation = datCreation;
+        version = VERSIONS.incrementAndGet();
     }
 
     public Date getDatUpdate() {
@@ -88,6 +231,7 @@ public class Product {
 
     public void setDatUpdate(Date datUpdate) {
         this.datUpdate = datUpdate;
+        version = VERSIONS.incrementAndGet();
     }
 
     public String getDescription() {
@@ -96,6 +240,7 @@ public class Product {
 
     public void setDescription(String description) {
         this.description = description;
+        version = VERSIONS.incrementAndGet();
     }
 
     public String getImageUrl() {
@@ -104,6 +249,7 @@ public class Product {
 
     public void setImageUrl(String imageUrl) {
         this.imageUrl = imageUrl;
+        version = VERSIONS.incrementAndGet();
     }
 
     public List<Specifications> getSpecificationsList() {
@@ -112,13 +258,41 @@ public class Product {
 
     public void setSpecificationsList(List<Specifications> specificationsList) {
         this.specificationsList = specificationsList;
+        version = VERSIONS.incrementAndGet();
     }
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public List<Rating> getRatingList() {
         return ratingList;
     }
 
     public void setRatingList(List<Rating> ratingList) {
         this.ratingList = ratingList;
+        ratingCount = 0;
+        ratingSum = 0;
+        averageRating = 0.0;
+        if (ratingList != null) {
+            int count = 0;
+            double sum = 0;
+            for (Rating rating : ratingList) {
+                if (rating.getScore() != null) {
+                    count++;
+                    sum += rating.getScore();
+                }
+            }
+            updateAggregates(count, sum);
+        }
+        version = VERSIONS.incrementAndGet();
+    }
+
+    /**
+     * Sets a rating list whose aggregates are already known, without walking it.
+     */
+    public void setRatingList(List<Rating> ratingList, int ratingCount, double ratingSum) {
+        this.ratingList = ratingList;
+        this.ratingCount = 0;
+        this.ratingSum = 0;
+        updateAggregates(ratingCount, ratingSum);
+        version = VERSIONS.incrementAndGet();
     }
 }
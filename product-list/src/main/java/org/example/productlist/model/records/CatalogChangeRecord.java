@@ -0,0 +1,18 @@
+package org.example.productlist.model.records;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Outcome of a catalog change")
+public record CatalogChangeRecord(
+        @Schema(description = "Catalog version that includes the change")
+        long catalogVersion,
+        @Schema(description = "Number of products added or modified")
+        int upserted,
+        @Schema(description = "Number of products removed")
+        int deleted,
+        @Schema(description = "Product IDs referenced by the change that match no product")
+        List<String> missing
+) {
+}
@@ -0,0 +1,33 @@
+package org.example.productlist.model.records;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.example.productlist.model.entity.Product;
+import org.example.productlist.model.entity.Rating;
+import org.example.productlist.model.entity.Specifications;
+
+import java.util.List;
+
+@Schema(description = "Changes applied to the catalog as one new version. Products are upserted first, then specifications and ratings, then the deletions")
+public record CatalogDeltaRecord(
+        @Schema(description = "Complete products, each replacing the product with the same productId or added when the id is new")
+        List<Product> products,
+        @Schema(description = "Specifications of existing products, each replacing the one with the same specificationId or added")
+        List<Specifications> specifications,
+        @Schema(description = "Ratings of existing products, each replacing the one with the same ratingId or added")
+        List<Rating> ratings,
+        @Schema(description = "Specifications to remove, identified by productId and specificationId")
+        List<Specifications> deletedSpecifications,
+        @Schema(description = "Ratings to remove, identified by productId and ratingId")
+        List<Rating> deletedRatings,
+        @Schema(description = "IDs of the products to remove")
+        List<String> deletedProducts
+) {
+    public CatalogDeltaRecord {
+        products = products == null ? List.of() : products;
+        specifications = specifications == null ? List.of() : specifications;
+        ratings = ratings == null ? List.of() : ratings;
+        deletedSpecifications = deletedSpecifications == null ? List.of() : deletedSpecifications;
+        deletedRatings = deletedRatings == null ? List.of() : deletedRatings;
+        deletedProducts = deletedProducts == null ? List.of() : deletedProducts;
+    }
+}
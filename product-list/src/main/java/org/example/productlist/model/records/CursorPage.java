@@ -0,0 +1,15 @@
+package org.example.productlist.model.records;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.example.productlist.model.entity.Product;
+
+import java.util.List;
+
+@Schema(description = "Page of products in keyset pagination")
+public record CursorPage(
+        @Schema(description = "Products of the requested page")
+        List<Product> products,
+        @Schema(description = "Cursor of the next page, null on the last page")
+        String nextCursor
+) {
+}
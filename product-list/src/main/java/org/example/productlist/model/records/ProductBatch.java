@@ -0,0 +1,15 @@
+package org.example.productlist.model.records;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.example.productlist.model.entity.Product;
+
+import java.util.List;
+
+@Schema(description = "Products resolved by a batch request")
+public record ProductBatch(
+        @Schema(description = "Products found, in the order their ids were requested")
+        List<Product> products,
+        @Schema(description = "Requested ids that match no product")
+        List<String> missing
+) {
+}
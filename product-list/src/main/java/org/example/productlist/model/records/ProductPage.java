@@ -0,0 +1,15 @@
+package org.example.productlist.model.records;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.example.productlist.model.entity.Product;
+
+import java.util.List;
+
+@Schema(description = "Page of products")
+public record ProductPage(
+        @Schema(description = "Products of the requested page")
+        List<Product> products,
+        @Schema(description = "Number of products matching the query across all pages")
+        long totalCount
+) {
+}
@@ -23,7 +23,7 @@ public record ProductRecord(
         String imageUrl,
         @Schema(description = "Product specifications")
         List<SpecificationRecord> specificationsList,
-        @Schema(description = "Product ratings")
-        List<RatingRecord> ratingList
+        @Schema(description = "Average score of the product ratings, which are listed by /products/{productId}/ratings")
+        Double averageRating
 ) {
 }
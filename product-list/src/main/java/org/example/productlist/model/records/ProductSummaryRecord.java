@@ -0,0 +1,26 @@
+package org.example.productlist.model.records;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.example.productlist.model.entity.Product;
+
+@Schema(description = "Product summary, without specifications and ratings")
+public record ProductSummaryRecord(
+        @Schema(description = "Product ID")
+        String productId,
+        @Schema(description = "Product name")
+        String name,
+        @Schema(description = "Product price")
+        Double price,
+        @Schema(description = "Average rating score")
+        double averageRating,
+        @Schema(description = "Number of ratings")
+        int ratingCount,
+        @Schema(description = "Product image URL")
+        String imageUrl
+) {
+
+    public static ProductSummaryRecord of(Product product) {
+        return new ProductSummaryRecord(product.getProductId(), product.getName(), product.getPrice(),
+                product.getAverageRating(), product.getRatingCount(), product.getImageUrl());
+    }
+}
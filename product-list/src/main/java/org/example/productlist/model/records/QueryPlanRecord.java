@@ -0,0 +1,20 @@
+package org.example.productlist.model.records;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Search query plan")
+public record QueryPlanRecord(
+        @Schema(description = "Catalog version the search ran against")
+        long catalogVersion,
+        @Schema(description = "Number of products in the catalog")
+        int catalogSize,
+        @Schema(description = "Number of matching products")
+        int matches,
+        @Schema(description = "Total search time in microseconds")
+        long durationMicros,
+        @Schema(description = "Stages in execution order")
+        List<QueryStageRecord> stages
+) {
+}
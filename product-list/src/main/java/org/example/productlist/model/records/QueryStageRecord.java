@@ -0,0 +1,18 @@
+package org.example.productlist.model.records;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Search query plan stage")
+public record QueryStageRecord(
+        @Schema(description = "Predicate evaluated by the stage")
+        String predicate,
+        @Schema(description = "index when the stage produced the candidates, filter when it narrowed them")
+        String access,
+        @Schema(description = "Estimated number of products matching the predicate")
+        int estimatedMatches,
+        @Schema(description = "Number of candidates left after the stage")
+        int remaining,
+        @Schema(description = "Stage time in microseconds")
+        long durationMicros
+) {
+}
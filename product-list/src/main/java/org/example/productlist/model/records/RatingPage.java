@@ -0,0 +1,14 @@
+package org.example.productlist.model.records;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Page of a product's ratings")
+public record RatingPage(
+        @Schema(description = "Ratings of the requested page")
+        List<RatingRecord> ratings,
+        @Schema(description = "Cursor of the next page, null on the last page")
+        String nextCursor
+) {
+}
@@ -1,6 +1,7 @@
 package org.example.productlist.model.records;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import org.example.productlist.model.entity.Rating;
 
 @Schema(description = "Rating")
 public record RatingRecord(
@@ -15,4 +16,9 @@ public record RatingRecord(
         @Schema(description = "Customer ID")
         String customerId
 ) {
+
+    public static RatingRecord of(Rating rating) {
+        return new RatingRecord(rating.getRatingId(), rating.getProductId(), rating.getScore(), rating.getMessage(),
+                rating.getCustomerId());
+    }
 }
@@ -1,15 +1,38 @@
 package org.example.productlist.repository;
 
 import org.example.productlist.model.entity.Product;
+import org.example.productlist.model.entity.Rating;
+import org.example.productlist.model.records.CatalogChangeRecord;
+import org.example.productlist.model.records.CatalogDeltaRecord;
+import org.example.productlist.model.records.CursorPage;
+import org.example.productlist.model.records.ProductBatch;
+import org.example.productlist.model.records.ProductPage;
+import org.example.productlist.model.records.QueryPlanRecord;
+import org.example.productlist.model.records.RatingPage;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository {
     List<Product> getProducts(Integer page, Integer size, String sort, String direction);
+    CursorPage getProductsAfter(String cursor, Integer size, String sort, String direction);
     List<Product> getProducts();
+    long getCatalogVersion();
+    long getCatalogContentVersion();
+    long getCatalogContentHash();
     Product getProductById(String productId);
+    ProductBatch getProductsByIds(List<String> productIds);
+    RatingPage getRatings(String productId, String cursor, Integer size, String sort, String direction);
     List<Product> getProductsByParams(String productName, String specifications,
             Double ratingMin, Double ratingMax, Double priceMin, Double priceMax);
+    Stream<Product> streamProductsByParams(String productName, String specifications,
+            Double ratingMin, Double ratingMax, Double priceMin, Double priceMax);
+    ProductPage searchProducts(String productName, String specifications, Double ratingMin, Double ratingMax,
+            Double priceMin, Double priceMax, Integer page, Integer size, String sort, String direction);
+    QueryPlanRecord explainProductsByParams(String productName, String specifications,
+            Double ratingMin, Double ratingMax, Double priceMin, Double priceMax);
+    CatalogChangeRecord applyDelta(CatalogDeltaRecord delta);
+    CatalogChangeRecord addRatings(List<Rating> ratings);
 }
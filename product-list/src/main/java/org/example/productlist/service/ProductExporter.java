@@ -0,0 +1,62 @@
+package org.example.productlist.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.example.productlist.model.entity.Product;
+import org.example.productlist.model.records.ProductSummaryRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes products as newline-delimited JSON through one generator per export. Products are serialized straight to
+ * the response, bypassing ProductJsonCache so a full export does not evict the fragments of hot products, and the
+ * output is flushed every chunkSize products. A slow client blocks the write, which holds back the export.
+ */
+@Component
+public class ProductExporter {
+
+    private final ObjectMapper mapper;
+    private final ObjectWriter writer;
+    private final ObjectWriter summaryWriter;
+    private final int chunkSize;
+
+    public ProductExporter(@Value("${product.list.export.chunk-size:500}") int chunkSize) {
+        this.mapper = new ObjectMapper()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.mapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.writer = mapper.writerFor(Product.class);
+        this.summaryWriter = mapper.writerFor(ProductSummaryRecord.class);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Writes every product of the stream and closes it. Returns the number of products written.
+     */
+    public long write(Stream<Product> products, ProductView view, OutputStream out) throws IOException {
+        long count = 0;
+        try (products; JsonGenerator generator = mapper.createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            for (Iterator<Product> iterator = products.iterator(); iterator.hasNext(); ) {
+                var product = iterator.next();
+                if (view == ProductView.SUMMARY) {
+                    summaryWriter.writeValue(generator, ProductSummaryRecord.of(product));
+                } else {
+                    writer.writeValue(generator, product);
+                }
+                generator.writeRaw('\n');
+                if (++count % chunkSize == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,149 @@
+package org.example.productlist.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.productlist.model.entity.Product;
+import org.example.productlist.model.records.ProductBatch;
+import org.example.productlist.model.records.ProductSummaryRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * UTF-8 JSON of each product, serialized once and reused until the product's version changes. Products are held by
+ * weak identity keys, so fragments of products dropped from the catalog go away with them. List responses are the
+ * cached fragments joined into a JSON array, in the full or the summary view.
+ */
+@Component
+public class ProductJsonCache implements MeterBinder {
+
+    private static final byte[] PRODUCTS_FIELD = "{\"products\":[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MISSING_FIELD = "],\"missing\":".getBytes(StandardCharsets.UTF_8);
+
+    // Both views of one product version, each serialized the first time it is asked for
+    private record Fragment(long version, byte[] full, byte[] summary) {
+
+        byte[] get(ProductView view) {
+            return view == ProductView.SUMMARY ? summary : full;
+        }
+
+        Fragment with(ProductView view, byte[] json) {
+            return view == ProductView.SUMMARY
+                    ? new Fragment(version, full, json)
+                    : new Fragment(version, json, summary);
+        }
+
+        int weight() {
+            return (full == null ? 0 : full.length) + (summary == null ? 0 : summary.length);
+        }
+    }
+
+    private final ObjectWriter writer;
+    private final ObjectWriter summaryWriter;
+    private final ObjectWriter idsWriter;
+    private final Cache<Product, Fragment> fragments;
+
+    public ProductJsonCache(@Value("${product.list.json-cache.maximum-bytes:268435456}") long maximumBytes) {
+        var mapper = new ObjectMapper().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.writer = mapper.writerFor(Product.class);
+        this.summaryWriter = mapper.writerFor(ProductSummaryRecord.class);
+        this.idsWriter = mapper.writerFor(List.class);
+        this.fragments = Caffeine.newBuilder()
+                .weakKeys()
+                .maximumWeight(maximumBytes)
+                .weigher((Product product, Fragment fragment) -> fragment.weight())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached JSON of the product. The array is shared and must not be modified.
+     */
+    public byte[] json(Product product) {
+        return json(product, ProductView.FULL);
+    }
+
+    public byte[] json(Product product, ProductView view) {
+        // Read the version before serializing: a concurrent change leaves a fragment that is already stale
+        long version = product.getVersion();
+        var fragment = fragments.getIfPresent(product);
+        if (fragment == null || fragment.version() != version) {
+            fragment = new Fragment(version, null, null);
+        }
+        var json = fragment.get(view);
+        if (json == null) {
+            json = serialize(product, view);
+            fragments.put(product, fragment.with(view, json));
+        }
+        return json;
+    }
+
+    public byte[] json(List<Product> products) {
+        return json(products, ProductView.FULL);
+    }
+
+    public byte[] json(List<Product> products, ProductView view) {
+        var parts = new byte[products.size()][];
+        int length = 2 + Math.max(0, products.size() - 1);
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = json(products.get(i), view);
+            length += parts[i].length;
+        }
+        var json = new byte[length];
+        int offset = 0;
+        json[offset++] = '[';
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                json[offset++] = ',';
+            }
+            System.arraycopy(parts[i], 0, json, offset, parts[i].length);
+            offset += parts[i].length;
+        }
+        json[offset] = ']';
+        return json;
+    }
+
+    /**
+     * Writes the batch as {"products":[...],"missing":[...]}, copying each cached fragment straight to the output.
+     */
+    public void write(ProductBatch batch, ProductView view, OutputStream out) throws IOException {
+        out.write(PRODUCTS_FIELD);
+        var products = batch.products();
+        for (int i = 0; i < products.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(json(products.get(i), view));
+        }
+        out.write(MISSING_FIELD);
+        out.write(idsWriter.writeValueAsBytes(batch.missing()));
+        out.write('}');
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, fragments, "products.json");
+    }
+
+    private byte[] serialize(Product product, ProductView view) {
+        try {
+            return view == ProductView.SUMMARY
+                    ? summaryWriter.writeValueAsBytes(ProductSummaryRecord.of(product))
+                    : writer.writeValueAsBytes(product);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,28 +1,61 @@
 package org.example.productlist.service;
 
 import org.example.productlist.exception.ProductNotFoundException;
+import org.example.productlist.exception.RatingQueueFullException;
 import org.example.productlist.model.entity.Product;
+import org.example.productlist.model.entity.Rating;
+import org.example.productlist.model.records.CatalogChangeRecord;
+import org.example.productlist.model.records.CatalogDeltaRecord;
+import org.example.productlist.model.records.CursorPage;
+import org.example.productlist.model.records.ProductBatch;
+import org.example.productlist.model.records.ProductPage;
+import org.example.productlist.model.records.QueryPlanRecord;
+import org.example.productlist.model.records.RatingPage;
+import org.example.productlist.model.records.RatingRecord;
 import org.example.productlist.repository.ProductRepository;
+import org.example.productlist.storage.SearchQuery;
+import org.example.productlist.storage.SortKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 public class ProductService {
 
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, QueryCache queryCache, RatingWriter ratingWriter) {
         this.productRepository = productRepository;
+        this.queryCache = queryCache;
+        this.ratingWriter = ratingWriter;
     }
 
     private ProductRepository productRepository;
+    private final QueryCache queryCache;
+    private final RatingWriter ratingWriter;
     private final Logger logger = LoggerFactory.getLogger(ProductService.class);
 
     public List<Product> getProducts(Integer page, Integer size, String sort, String direction) {
         logger.info("Retrieving products with pagination: {}, size: {}, sort: {}, direction:{}", page, size, sort,
                 direction);
-        return productRepository.getProducts(page, size, sort, direction);
+        // The content version is read second, so it is never older than the content of the catalog version
+        long catalogVersion = productRepository.getCatalogVersion();
+        long contentVersion = productRepository.getCatalogContentVersion();
+        var key = SortKey.from(sort);
+        Supplier<List<Product>> loader = () -> productRepository.getProducts(page, size, sort, direction);
+        return key == SortKey.RATING
+                ? queryCache.get(contentVersion, catalogVersion, "products", loader,
+                        page, size, key, "DESC".equalsIgnoreCase(direction))
+                : queryCache.getIgnoringRatings(contentVersion, catalogVersion, "products", loader, this::current,
+                        page, size, key, "DESC".equalsIgnoreCase(direction));
+    }
+
+    public CursorPage getProductsAfter(String cursor, Integer size, String sort, String direction) {
+        logger.info("Retrieving products after cursor: {}, size: {}, sort: {}, direction:{}", cursor, size, sort,
+                direction);
+        return productRepository.getProductsAfter(cursor, size, sort, direction);
     }
 
     public List<Product> getProducts() {
@@ -30,6 +63,10 @@ public class ProductService {
         return productRepository.getProducts();
     }
 
+    public long getCatalogContentHash() {
+        return productRepository.getCatalogContentHash();
+    }
+
     public Product getProductById(String productId) {
         logger.info("Retrieving product with id: {}", productId);
         var products = productRepository.getProductById(productId);
@@ -40,12 +77,97 @@ public class ProductService {
         return products;
     }
 
+    public ProductBatch getProductsByIds(List<String> productIds) {
+        logger.info("Retrieving products by ids: {}", productIds);
+        return productRepository.getProductsByIds(productIds);
+    }
+
+    public RatingPage getRatings(String productId, String cursor, Integer size, String sort, String direction) {
+        logger.info("Retrieving ratings of product: {} after cursor: {}, size: {}, sort: {}, direction:{}", productId,
+                cursor, size, sort, direction);
+        var ratings = productRepository.getRatings(productId, cursor, size, sort, direction);
+        if (ratings == null) {
+            logger.error("Product not found for id: {}", productId);
+            throw new ProductNotFoundException(String.format("Product with id %s not found", productId));
+        }
+        return ratings;
+    }
+
     public List<Product> searchProductsByParams(String productName, String specifications,
             Double ratingMin, Double ratingMax, Double priceMin, Double priceMax) {
         logger.info("Searching products by params: {}, {}, {}, {}, {}, {}", productName, specifications, ratingMin,
                 ratingMax, priceMin, priceMax);
-        return productRepository.getProductsByParams(productName, specifications, ratingMin, ratingMax,
+        long catalogVersion = productRepository.getCatalogVersion();
+        long contentVersion = productRepository.getCatalogContentVersion();
+        var query = SearchQuery.of(productName, specifications, ratingMin, ratingMax, priceMin, priceMax);
+        Supplier<List<Product>> loader = () -> productRepository.getProductsByParams(productName, specifications,
+                ratingMin, ratingMax, priceMin, priceMax);
+        return query.filtersRating()
+                ? queryCache.get(contentVersion, catalogVersion, "search", loader, query)
+                : queryCache.getIgnoringRatings(contentVersion, catalogVersion, "search", loader, this::current, query);
+    }
+
+    public Stream<Product> exportProductsByParams(String productName, String specifications,
+            Double ratingMin, Double ratingMax, Double priceMin, Double priceMax) {
+        logger.info("Exporting products by params: {}, {}, {}, {}, {}, {}", productName, specifications, ratingMin,
+                ratingMax, priceMin, priceMax);
+        return productRepository.streamProductsByParams(productName, specifications, ratingMin, ratingMax,
                 priceMin, priceMax);
     }
 
+    public ProductPage searchProductsByParams(String productName, String specifications,
+            Double ratingMin, Double ratingMax, Double priceMin, Double priceMax,
+            Integer page, Integer size, String sort, String direction) {
+        logger.info("Searching products by params: {}, {}, {}, {}, {}, {} with page: {}, size: {}, sort: {}, direction: {}",
+                productName, specifications, ratingMin, ratingMax, priceMin, priceMax, page, size, sort, direction);
+        long catalogVersion = productRepository.getCatalogVersion();
+        long contentVersion = productRepository.getCatalogContentVersion();
+        var query = SearchQuery.of(productName, specifications, ratingMin, ratingMax, priceMin, priceMax);
+        var key = SortKey.from(sort);
+        Supplier<ProductPage> loader = () -> productRepository.searchProducts(productName, specifications, ratingMin,
+                ratingMax, priceMin, priceMax, page, size, sort, direction);
+        return query.filtersRating() || key == SortKey.RATING
+                ? queryCache.get(contentVersion, catalogVersion, "searchPage", loader,
+                        query, page, size, key, "DESC".equalsIgnoreCase(direction))
+                : queryCache.getIgnoringRatings(contentVersion, catalogVersion, "searchPage", loader,
+                        productPage -> new ProductPage(current(productPage.products()), productPage.totalCount()),
+                        query, page, size, key, "DESC".equalsIgnoreCase(direction));
+    }
+
+    public QueryPlanRecord explainSearchByParams(String productName, String specifications,
+            Double ratingMin, Double ratingMax, Double priceMin, Double priceMax) {
+        logger.info("Explaining search by params: {}, {}, {}, {}, {}, {}", productName, specifications, ratingMin,
+                ratingMax, priceMin, priceMax);
+        return productRepository.explainProductsByParams(productName, specifications, ratingMin, ratingMax,
+                priceMin, priceMax);
+    }
+
+    public CatalogChangeRecord applyDelta(CatalogDeltaRecord delta) {
+        logger.info("Applying catalog delta");
+        return productRepository.applyDelta(delta);
+    }
+
+    /**
+     * Queues a rating of the product and returns it with its new id. It shows up in the product once the rating
+     * writer has applied it.
+     */
+    public RatingRecord submitRating(String productId, RatingRecord submission) {
+        logger.info("Submitting rating of product: {}", productId);
+        getProductById(productId);
+        var rating = new Rating(productId, submission.score(), submission.message(), submission.customerId());
+        if (!ratingWriter.submit(rating)) {
+            logger.error("Rating queue not accepting ratings, rejecting rating of product: {}", productId);
+            throw new RatingQueueFullException("Ratings cannot be stored right now, try again later");
+        }
+        return RatingRecord.of(rating);
+    }
+
+    public int getRatingQueueDepth() {
+        return ratingWriter.depth();
+    }
+
+    // The same products as the catalog holds them now, for a cached result whose rating aggregates may be outdated
+    private List<Product> current(List<Product> products) {
+        return productRepository.getProductsByIds(products.stream().map(Product::getProductId).toList()).products();
+    }
 }
@@ -0,0 +1,14 @@
+package org.example.productlist.service;
+
+/**
+ * Representation of the products in a list response.
+ */
+public enum ProductView {
+    FULL,
+    // ProductSummaryRecord: id, name, price, average rating, rating count and image
+    SUMMARY;
+
+    public static ProductView from(String view) {
+        return "summary".equalsIgnoreCase(view) ? SUMMARY : FULL;
+    }
+}
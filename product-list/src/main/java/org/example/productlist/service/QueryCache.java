@@ -0,0 +1,116 @@
+package org.example.productlist.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.productlist.model.records.ProductPage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded cache of query results. Entries are keyed by the content version of the catalog they were computed from,
+ * which rating batches leave alone, so publishing a catalog with other changes makes every older entry unreachable;
+ * they are dropped the first time a newer version is seen. Results that depend on ratings are keyed by the catalog
+ * version as well and go the same way after every rating batch. The others survive it: the first read of a newer
+ * catalog swaps their products for the current ones, which carry the new rating aggregates. Concurrent misses for the
+ * same key wait for a single computation.
+ */
+@Component
+public class QueryCache implements MeterBinder {
+
+    // Catalog version in the key of results that hold for any rating
+    private static final long ANY_RATINGS = -1;
+
+    record Key(long contentVersion, long catalogVersion, String operation, List<Object> arguments) {
+    }
+
+    // The result and the catalog version whose products it holds
+    private record Entry(long catalogVersion, Object value) {
+    }
+
+    private final Cache<Key, Entry> cache;
+    private final AtomicLong latestVersion = new AtomicLong(Long.MIN_VALUE);
+
+    public QueryCache(@Value("${product.list.query-cache.maximum-weight:200000}") long maximumWeight) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((Key key, Entry entry) -> weigh(entry.value()))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Result of a query that depends on ratings, computed again after every rating batch.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(long contentVersion, long catalogVersion, String operation, Supplier<T> loader,
+            Object... arguments) {
+        evictOlderThan(contentVersion, catalogVersion);
+        var key = new Key(contentVersion, catalogVersion, operation, Arrays.asList(arguments));
+        return (T) cache.get(key, k -> new Entry(catalogVersion, loader.get())).value();
+    }
+
+    /**
+     * Result of a query whose matches and order do not depend on ratings. After a rating batch, {@code refresh} gets
+     * the cached result and returns it with the current version of its products.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getIgnoringRatings(long contentVersion, long catalogVersion, String operation, Supplier<T> loader,
+            UnaryOperator<T> refresh, Object... arguments) {
+        evictOlderThan(contentVersion, catalogVersion);
+        var key = new Key(contentVersion, ANY_RATINGS, operation, Arrays.asList(arguments));
+        var entry = cache.get(key, k -> new Entry(catalogVersion, loader.get()));
+        if (entry.catalogVersion() < catalogVersion) {
+            var refreshed = new Entry(catalogVersion, refresh.apply((T) entry.value()));
+            cache.asMap().replace(key, entry, refreshed);
+            entry = refreshed;
+        }
+        return (T) entry.value();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "products.query");
+    }
+
+    private void evictOlderThan(long contentVersion, long catalogVersion) {
+        long latest = latestVersion.get();
+        while (catalogVersion > latest) {
+            if (latestVersion.compareAndSet(latest, catalogVersion)) {
+                cache.asMap().keySet().removeIf(key -> key.contentVersion() < contentVersion
+                        || key.catalogVersion() != ANY_RATINGS && key.catalogVersion() < catalogVersion);
+                return;
+            }
+            latest = latestVersion.get();
+        }
+    }
+
+    // Weight is the number of products an entry holds on to, a page costs far less than a full result list
+    private static int weigh(Object value) {
+        if (value instanceof Collection<?> collection) {
+            return Math.max(1, collection.size());
+        }
+        if (value instanceof ProductPage page) {
+            return Math.max(1, page.products().size());
+        }
+        return 1;
+    }
+}
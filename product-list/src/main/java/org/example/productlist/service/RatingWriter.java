@@ -0,0 +1,212 @@
+package org.example.productlist.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.productlist.model.entity.Rating;
+import org.example.productlist.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Stores submitted ratings in the background. Request threads add them to a lock-free queue and return; a single
+ * writer thread drains it and appends up to batchSize ratings to the catalog as one change, so a burst of ratings
+ * costs one snapshot, one aggregate update per product and one log write per batch instead of per rating. Readers
+ * keep using the published snapshot the whole time. The queue holds at most capacity ratings and refuses submissions
+ * past it. A batch that fails to be stored is kept and tried again, and submissions are refused until it is stored.
+ * After maxAttempts failed attempts the writer gives up: the queued ratings are counted as failed, submissions are
+ * refused for good and the health of the writer turns DOWN, which takes the instance out of readiness.
+ */
+@Component
+public class RatingWriter implements SmartLifecycle, HealthIndicator {
+
+    // Below the phases of the web server, so the writer starts before it takes requests and stops after it finished
+    // them
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+    private static final long MIN_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long MAX_RETRY_NANOS = TimeUnit.SECONDS.toNanos(10);
+    // Attempts left for a failing batch once the writer is stopping
+    private static final int STOP_ATTEMPTS = 3;
+
+    public RatingWriter(ProductRepository productRepository, MeterRegistry meterRegistry,
+            @Value("${product.list.ratings.queue-capacity:100000}") int capacity,
+            @Value("${product.list.ratings.batch-size:1000}") int batchSize,
+            @Value("${product.list.ratings.max-attempts:10}") int maxAttempts) {
+        this.productRepository = productRepository;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.submitted = meterRegistry.counter("ratings.submitted", "result", "queued");
+        this.rejected = meterRegistry.counter("ratings.submitted", "result", "rejected");
+        this.stored = meterRegistry.counter("ratings.stored");
+        this.failed = meterRegistry.counter("ratings.failed");
+        this.batchTime = meterRegistry.timer("ratings.batch.time");
+        Gauge.builder("ratings.queue.depth", depth, AtomicInteger::get)
+                .description("Ratings accepted and not yet applied to the catalog")
+                .register(meterRegistry);
+    }
+
+    private final ProductRepository productRepository;
+    private final int capacity;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Counter submitted;
+    private final Counter rejected;
+    private final Counter stored;
+    private final Counter failed;
+    private final Timer batchTime;
+    private final Queue<Rating> queue = new ConcurrentLinkedQueue<>();
+    // Size of the queue, which ConcurrentLinkedQueue can only count by walking it
+    private final AtomicInteger depth = new AtomicInteger();
+    private volatile Thread writer;
+    private volatile boolean running;
+    private volatile boolean stopped;
+    // Set while a batch keeps failing to be stored
+    private volatile boolean failing;
+    // Set once a batch ran out of attempts, the writer is gone for good
+    private volatile boolean gaveUp;
+
+    private final Logger logger = LoggerFactory.getLogger(RatingWriter.class);
+
+    /**
+     * Queues the rating, or returns false when the queue is full, ratings are failing to be stored or the writer
+     * stopped.
+     */
+    public boolean submit(Rating rating) {
+        if (stopped || failing) {
+            rejected.increment();
+            return false;
+        }
+        if (depth.incrementAndGet() > capacity) {
+            depth.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        queue.offer(rating);
+        submitted.increment();
+        // A permit left for a writer that is not parked yet makes its next park return at once
+        LockSupport.unpark(writer);
+        return true;
+    }
+
+    /**
+     * Number of ratings waiting to be applied.
+     */
+    public int depth() {
+        return depth.get();
+    }
+
+    @Override
+    public void start() {
+        stopped = false;
+        running = true;
+        writer = Thread.ofPlatform().daemon().name("rating-writer").start(this::run);
+    }
+
+    /**
+     * Refuses new ratings, stores every rating still queued, then stops the writer.
+     */
+    @Override
+    public void stop() {
+        var thread = writer;
+        stopped = true;
+        running = false;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.MINUTES.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writer != null;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    @Override
+    public Health health() {
+        var health = gaveUp ? Health.down() : Health.up();
+        return health.withDetail("queued", depth.get()).withDetail("failing", failing).build();
+    }
+
+    private void run() {
+        List<Rating> batch = new ArrayList<>(batchSize);
+        long retryNanos = MIN_RETRY_NANOS;
+        int attempts = 0;
+        int stopAttempts = STOP_ATTEMPTS;
+        while (running || !batch.isEmpty() || !queue.isEmpty()) {
+            Rating rating;
+            while (batch.size() < batchSize && (rating = queue.poll()) != null) {
+                batch.add(rating);
+            }
+            if (batch.isEmpty()) {
+                LockSupport.park(this);
+                continue;
+            }
+            if (write(batch)) {
+                depth.addAndGet(-batch.size());
+                batch.clear();
+                failing = false;
+                attempts = 0;
+                retryNanos = MIN_RETRY_NANOS;
+            } else if (++attempts == maxAttempts) {
+                failing = true;
+                gaveUp = true;
+                failed.increment(depth.get());
+                logger.error("Gave up after {} attempts with {} ratings that were accepted and could not be stored",
+                        attempts, depth.get());
+                return;
+            } else if (!running && --stopAttempts == 0) {
+                failed.increment(depth.get());
+                logger.error("Stopped with {} ratings that were accepted and could not be stored", depth.get());
+                return;
+            } else {
+                failing = true;
+                LockSupport.parkNanos(this, retryNanos);
+                retryNanos = Math.min(retryNanos * 2, MAX_RETRY_NANOS);
+            }
+        }
+    }
+
+    // The batch stays queued for another attempt when this returns false
+    private boolean write(List<Rating> batch) {
+        long start = System.nanoTime();
+        try {
+            var change = productRepository.addRatings(List.copyOf(batch));
+            stored.increment(batch.size());
+            if (!change.missing().isEmpty()) {
+                logger.warn("Dropped ratings of products removed after they were queued: {}", change.missing());
+            }
+            return true;
+        } catch (RuntimeException e) {
+            logger.error("Failed to store {} ratings, trying again", batch.size(), e);
+            return false;
+        } finally {
+            batchTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
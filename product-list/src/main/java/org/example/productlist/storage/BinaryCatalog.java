@@ -0,0 +1,401 @@
+package org.example.productlist.storage;
+
+import org.example.productlist.model.entity.Product;
+import org.example.productlist.model.entity.Rating;
+import org.example.productlist.model.entity.Specifications;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Compact binary catalog that is read through read-only memory mappings.
+ * <p>
+ * Layout: a header (magic, format version, product count, position of the offset table), one record per product and
+ * a table with the start offset of every record followed by the end of the last one. Strings are stored as a length
+ * prefixed UTF-8 sequence, with -1 for null. Rating lists carry their own offset table so ratings stay in the mapped
+ * file and are only decoded when they are accessed, and are preceded by the number and the sum of their scores so a
+ * product gets its rating aggregates without decoding them. Version 1 files, without the aggregates, are still read.
+ */
+public final class BinaryCatalog {
+
+    static final int MAGIC = 0x504C4331;
+    static final int FORMAT_VERSION = 2;
+    // Records without the rating aggregates
+    private static final int FORMAT_VERSION_WITHOUT_AGGREGATES = 1;
+    private static final int HEADER_BYTES = 20;
+    private static final long MAX_REGION_BYTES = 1L << 30;
+    private static final long NULL_DATE = Long.MIN_VALUE;
+
+    private final int formatVersion;
+    private final int size;
+    private final long[] offsets;
+    private final int[] regionFirstOrdinals;
+    private final MappedByteBuffer[] regions;
+
+    private BinaryCatalog(int formatVersion, int size, long[] offsets, int[] regionFirstOrdinals,
+            MappedByteBuffer[] regions) {
+        this.formatVersion = formatVersion;
+        this.size = size;
+        this.offsets = offsets;
+        this.regionFirstOrdinals = regionFirstOrdinals;
+        this.regions = regions;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Product read(int ordinal) {
+        return read(ordinal, null);
+    }
+
+    private Product read(int ordinal, StringPool strings) {
+        int region = Arrays.binarySearch(regionFirstOrdinals, ordinal);
+        if (region < 0) {
+            region = -region - 2;
+        }
+        long regionStart = offsets[regionFirstOrdinals[region]];
+        return new Decoder(regions[region], (int) (offsets[ordinal] - regionStart), strings)
+                .product(formatVersion != FORMAT_VERSION_WITHOUT_AGGREGATES);
+    }
+
+    /**
+     * Decodes every product in parallel and hands them to the consumer one at a time, in file order.
+     */
+    public void forEach(Consumer<Product> consumer) {
+        StringPool strings = new StringPool();
+        IntStream.range(0, size).parallel().mapToObj(i -> read(i, strings)).forEachOrdered(consumer);
+    }
+
+    public static boolean isBinaryCatalog(Path file) throws IOException {
+        if (Files.size(file) < HEADER_BYTES) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(magic, 0);
+            return magic.getInt(0) == MAGIC;
+        }
+    }
+
+    public static BinaryCatalog open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            int formatVersion = header.getInt(4);
+            if (header.getInt(0) != MAGIC
+                    || (formatVersion != FORMAT_VERSION && formatVersion != FORMAT_VERSION_WITHOUT_AGGREGATES)) {
+                throw new IOException("Not a binary catalog file: " + file);
+            }
+            int size = header.getInt(8);
+            long offsetTablePosition = header.getLong(12);
+
+            long[] offsets = new long[size + 1];
+            channel.map(FileChannel.MapMode.READ_ONLY, offsetTablePosition, (long) offsets.length * Long.BYTES)
+                    .asLongBuffer()
+                    .get(offsets);
+
+            // Records never straddle two mappings, so every read uses a single int-addressed buffer
+            List<Integer> firstOrdinals = new ArrayList<>();
+            List<MappedByteBuffer> regions = new ArrayList<>();
+            int first = 0;
+            while (first < size) {
+                int last = first;
+                while (last < size && offsets[last + 1] - offsets[first] <= MAX_REGION_BYTES) {
+                    last++;
+                }
+                if (last == first) {
+                    throw new IOException("Product record larger than " + MAX_REGION_BYTES + " bytes in " + file);
+                }
+                firstOrdinals.add(first);
+                regions.add(channel.map(FileChannel.MapMode.READ_ONLY, offsets[first],
+                        offsets[last] - offsets[first]));
+                first = last;
+            }
+            return new BinaryCatalog(formatVersion, size, offsets, firstOrdinals.stream().mapToInt(Integer::intValue).toArray(),
+                    regions.toArray(MappedByteBuffer[]::new));
+        }
+    }
+
+    public static void write(Iterable<Product> products, Path file) throws IOException {
+        write(products, Product::getRatingList, file);
+    }
+
+    /**
+     * Writes the products with the ratings {@code ratings} returns for each of them, for products whose ratings are
+     * kept apart.
+     */
+    public static void write(Iterable<Product> products, Function<Product, List<Rating>> ratings, Path file)
+            throws IOException {
+        List<Long> offsets = new ArrayList<>();
+        long offsetTablePosition;
+        // Counted above the buffer, so the count is the position in the file without flushing every product
+        try (CountingOutputStream counter = new CountingOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+             DataOutputStream out = new DataOutputStream(counter)) {
+            out.write(new byte[HEADER_BYTES]);
+            for (Product product : products) {
+                offsets.add(counter.count);
+                writeProduct(out, product, ratings.apply(product));
+            }
+            offsets.add(counter.count);
+            offsetTablePosition = counter.count;
+            for (long offset : offsets) {
+                out.writeLong(offset);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putInt(offsets.size() - 1)
+                    .putLong(offsetTablePosition)
+                    .flip();
+            channel.write(header, 0);
+        }
+    }
+
+    private static void writeProduct(DataOutputStream out, Product product, List<Rating> ratings)
+            throws IOException {
+        writeString(out, product.getProductId());
+        writeString(out, product.getName());
+        writeDouble(out, product.getPrice());
+        writeDate(out, product.getDatCreation());
+        writeDate(out, product.getDatUpdate());
+        writeString(out, product.getDescription());
+        writeString(out, product.getImageUrl());
+
+        List<Specifications> specifications = product.getSpecificationsList();
+        out.writeInt(specifications == null ? -1 : specifications.size());
+        if (specifications != null) {
+            for (Specifications specification : specifications) {
+                writeString(out, specification.getSpecificationId());
+                writeString(out, specification.getProductId());
+                writeString(out, specification.getKey());
+                writeString(out, specification.getValue());
+            }
+        }
+
+        List<byte[]> encoded = new ArrayList<>(ratings == null ? 0 : ratings.size());
+        int ratingCount = 0;
+        double ratingSum = 0;
+        if (ratings != null) {
+            for (Rating rating : ratings) {
+                encoded.add(encodeRating(rating));
+                if (rating.getScore() != null) {
+                    ratingCount++;
+                    ratingSum += rating.getScore();
+                }
+            }
+        }
+        out.writeInt(ratingCount);
+        out.writeDouble(ratingSum);
+        out.writeInt(ratings == null ? -1 : ratings.size());
+        if (ratings != null) {
+            int offset = Integer.BYTES * (1 + ratings.size());
+            for (byte[] rating : encoded) {
+                out.writeInt(offset);
+                offset += rating.length;
+            }
+            for (byte[] rating : encoded) {
+                out.write(rating);
+            }
+        }
+    }
+
+    private static byte[] encodeRating(Rating rating) throws IOException {
+        var bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeString(out, rating.getRatingId());
+            writeString(out, rating.getProductId());
+            writeDouble(out, rating.getScore());
+            writeString(out, rating.getMessage());
+            writeString(out, rating.getCustomerId());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeDouble(DataOutputStream out, Double value) throws IOException {
+        out.writeBoolean(value != null);
+        out.writeDouble(value == null ? 0 : value);
+    }
+
+    private static void writeDate(DataOutputStream out, Date value) throws IOException {
+        out.writeLong(value == null ? NULL_DATE : value.getTime());
+    }
+
+    /**
+     * Sequential reader over absolute positions, the shared mapped buffer itself is never repositioned.
+     */
+    private static final class Decoder {
+        private final ByteBuffer buffer;
+        private final StringPool strings;
+        private int position;
+
+        private Decoder(ByteBuffer buffer, int position, StringPool strings) {
+            this.buffer = buffer;
+            this.position = position;
+            this.strings = strings;
+        }
+
+        private Product product(boolean aggregates) {
+            String productId = string();
+            String name = string();
+            Double price = nullableDouble();
+            Date datCreation = date();
+            Date datUpdate = date();
+            String description = string();
+            String imageUrl = string();
+            List<Specifications> specifications = specifications(productId);
+            if (!aggregates) {
+                // The product walks the mapped list to count the ratings
+                return new Product(productId, name, price, datCreation, datUpdate, description, imageUrl,
+                        specifications, ratings());
+            }
+            int ratingCount = integer();
+            double ratingSum = buffer.getDouble(position);
+            position += Double.BYTES;
+            var product = new Product(productId, name, price, datCreation, datUpdate, description, imageUrl,
+                    specifications, null);
+            // Ratings are the last field of a record, the decoder does not need to move past them
+            product.setRatingList(ratings(), ratingCount, ratingSum);
+            return product;
+        }
+
+        private List<Specifications> specifications(String productId) {
+            int count = integer();
+            if (count < 0) {
+                return null;
+            }
+            List<Specifications> specifications = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String specificationId = string();
+                String specificationProductId = string();
+                specifications.add(new Specifications(specificationId,
+                        Objects.equals(specificationProductId, productId) ? productId : specificationProductId,
+                        interned(string()), interned(string())));
+            }
+            return specifications;
+        }
+
+        private String interned(String value) {
+            return strings == null ? value : strings.intern(value);
+        }
+
+        private List<Rating> ratings() {
+            int listPosition = position;
+            int count = integer();
+            return count < 0 ? null : new MappedRatingList(buffer, listPosition, count);
+        }
+
+        private Rating rating() {
+            return new Rating(string(), string(), nullableDouble(), string(), string());
+        }
+
+        private int integer() {
+            int value = buffer.getInt(position);
+            position += Integer.BYTES;
+            return value;
+        }
+
+        private Double nullableDouble() {
+            boolean present = buffer.get(position) != 0;
+            double value = buffer.getDouble(position + 1);
+            position += 1 + Double.BYTES;
+            return present ? value : null;
+        }
+
+        private Date date() {
+            long value = buffer.getLong(position);
+            position += Long.BYTES;
+            return value == NULL_DATE ? null : new Date(value);
+        }
+
+        private String string() {
+            int length = integer();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(position, bytes);
+            position += length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Read-only list whose ratings stay in the mapped file and are decoded on every access.
+     */
+    private static final class MappedRatingList extends AbstractList<Rating> {
+        private final ByteBuffer buffer;
+        private final int listPosition;
+        private final int size;
+
+        private MappedRatingList(ByteBuffer buffer, int listPosition, int size) {
+            this.buffer = buffer;
+            this.listPosition = listPosition;
+            this.size = size;
+        }
+
+        @Override
+        public Rating get(int index) {
+            Objects.checkIndex(index, size);
+            int offset = buffer.getInt(listPosition + Integer.BYTES * (1 + index));
+            return new Decoder(buffer, listPosition + offset, null).rating();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
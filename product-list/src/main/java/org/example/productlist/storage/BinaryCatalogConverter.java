@@ -0,0 +1,33 @@
+package org.example.productlist.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Converts a products JSON file to the {@link BinaryCatalog} format, e.g. {@code ./gradlew convertCatalog
+ * -Pinput=products.json -Poutput=products.bin}.
+ */
+public final class BinaryCatalogConverter {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinaryCatalogConverter.class);
+
+    private BinaryCatalogConverter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: BinaryCatalogConverter <products.json> <products.bin>");
+        }
+        Path input = Path.of(args[0]);
+        Path output = Path.of(args[1]);
+        long start = System.nanoTime();
+        var products = new ProductFileLoader(new ObjectMapper()).load(input);
+        BinaryCatalog.write(products, output);
+        logger.info("Converted {} products from {} to {} in {} ms", products.size(), input, output,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
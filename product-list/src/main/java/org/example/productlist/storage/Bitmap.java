@@ -0,0 +1,129 @@
+package org.example.productlist.storage;
+
+import java.util.Arrays;
+
+/**
+ * Fixed size set of product ordinals. Filters produce bitmaps that are combined word by word.
+ */
+public final class Bitmap {
+
+    private final long[] words;
+    private final int size;
+
+    public Bitmap(int size) {
+        this.size = size;
+        this.words = new long[(size + 63) >>> 6];
+    }
+
+    public static Bitmap all(int size) {
+        Bitmap bitmap = new Bitmap(size);
+        Arrays.fill(bitmap.words, -1L);
+        bitmap.clearTail();
+        return bitmap;
+    }
+
+    /**
+     * Copy of {@code source} resized to {@code size} ordinals; ordinals past the end of the source are clear.
+     */
+    static Bitmap copyOf(Bitmap source, int size) {
+        Bitmap bitmap = new Bitmap(size);
+        System.arraycopy(source.words, 0, bitmap.words, 0, Math.min(source.words.length, bitmap.words.length));
+        bitmap.clearTail();
+        return bitmap;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void set(int ordinal) {
+        words[ordinal >>> 6] |= 1L << ordinal;
+    }
+
+    public void clear(int ordinal) {
+        words[ordinal >>> 6] &= ~(1L << ordinal);
+    }
+
+    public boolean get(int ordinal) {
+        return (words[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    public Bitmap and(Bitmap other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= other.words[i];
+        }
+        return this;
+    }
+
+    public Bitmap or(Bitmap other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+        return this;
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the first ordinal at or after {@code from} that is set, or -1 when there is none.
+     */
+    public int nextSetBit(int from) {
+        if (from >= size) {
+            return -1;
+        }
+        int index = from >>> 6;
+        long word = words[index] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (index << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++index == words.length) {
+                return -1;
+            }
+            word = words[index];
+        }
+    }
+
+    /**
+     * Number of set ordinals below each of the given ones, which must be ascending. Counts every word up to the last
+     * ordinal once.
+     */
+    int[] countBefore(int[] ordinals) {
+        int[] counts = new int[ordinals.length];
+        int count = 0;
+        int index = 0;
+        for (int i = 0; i < ordinals.length; i++) {
+            for (; index < ordinals[i] >>> 6; index++) {
+                count += Long.bitCount(words[index]);
+            }
+            counts[i] = count + Long.bitCount(words[index] & ((1L << ordinals[i]) - 1));
+        }
+        return counts;
+    }
+
+    long[] words() {
+        return words;
+    }
+
+    private void clearTail() {
+        int tail = size & 63;
+        if (tail != 0) {
+            words[words.length - 1] &= (1L << tail) - 1;
+        }
+    }
+}
@@ -0,0 +1,659 @@
+package org.example.productlist.storage;
+
+import org.example.productlist.model.entity.Product;
+import org.example.productlist.model.records.QueryPlanRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.DoublePredicate;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Immutable view of the catalog. Every supported sort key has a precomputed ordering of product ordinals, so a page
+ * is a slice of an array and readers never need to lock or sort anything. Changes produce a new snapshot through
+ * {@link #apply}, which shares everything the change does not touch with the snapshot it was derived from.
+ */
+public final class CatalogSnapshot {
+
+    // Once a quarter of the ordinals belong to removed products, apply rebuilds the catalog from scratch
+    private static final int COMPACTION_RATIO = 4;
+
+    private final long version;
+    // Version of the last change to anything but ratings
+    private final long contentVersion;
+    // Sum of the content hashes of the live products, so it depends neither on their order nor on the changes that
+    // led to this catalog
+    private final long contentHash;
+    // Indexed by ordinal, removed products leave a null behind
+    private final List<Product> products;
+    private final List<Product> liveProducts;
+    private final Bitmap live;
+    private final int removed;
+    private final Map<SortKey, int[]> sortIndexes = new EnumMap<>(SortKey.class);
+    // Inverse of each sort index: the sort position of every ordinal
+    private final Map<SortKey, int[]> ranks = new EnumMap<>(SortKey.class);
+    private final ProductIdIndex idIndex;
+    private final NameIndex nameIndex;
+    private final SpecificationIndex specificationIndex;
+    private final NumericColumn priceColumn;
+    private final NumericColumn ratingColumn;
+    private final RatingSegment[] ratingSegments;
+
+    public CatalogSnapshot(long version, List<Product> products) {
+        this(builder(version).addAll(products));
+    }
+
+    private CatalogSnapshot(Builder builder) {
+        this.version = builder.version;
+        this.contentVersion = builder.version;
+        this.products = Collections.unmodifiableList(builder.products);
+        this.liveProducts = this.products;
+        this.live = Bitmap.all(this.products.size());
+        this.removed = 0;
+        this.contentHash = this.products.stream().mapToLong(Product::getContentHash).sum();
+        this.idIndex = new ProductIdIndex(this.products);
+        this.nameIndex = new NameIndex(this.products);
+        this.specificationIndex = new SpecificationIndex(this.products);
+        this.priceColumn = new NumericColumn(this.products, CatalogSnapshot::price);
+        this.ratingColumn = new NumericColumn(this.products, Product::getAverageRating);
+        this.ratingSegments = builder.ratingSegments.toArray(RatingSegment[]::new);
+        for (SortKey key : SortKey.values()) {
+            putSortIndex(key, buildSortIndex(key));
+        }
+    }
+
+    private CatalogSnapshot(CatalogSnapshot previous, long version, List<Product> products,
+            RatingSegment[] ratingSegments, Bitmap changed, List<String> removedIds, int[] addedOrdinals, int removed) {
+        int[] changedOrdinals = IntStream.iterate(changed.nextSetBit(0), ordinal -> ordinal >= 0,
+                ordinal -> changed.nextSetBit(ordinal + 1)).toArray();
+        this.version = version;
+        this.contentVersion = version;
+        this.products = Collections.unmodifiableList(products);
+        this.live = Bitmap.copyOf(previous.live, this.products.size());
+        for (int ordinal : changedOrdinals) {
+            if (this.products.get(ordinal) == null) {
+                live.clear(ordinal);
+            } else {
+                live.set(ordinal);
+            }
+        }
+        this.removed = removed;
+        this.liveProducts = removed == 0 ? this.products : select(live);
+        this.contentHash = contentHash(previous.contentHash, previous.products, this.products, changedOrdinals);
+        this.idIndex = previous.idIndex.update(this.products, removedIds, addedOrdinals);
+        this.nameIndex = new NameIndex(previous.nameIndex, this.products, changedOrdinals);
+        this.specificationIndex = new SpecificationIndex(previous.specificationIndex, previous.products,
+                this.products, changedOrdinals);
+        this.priceColumn = new NumericColumn(previous.priceColumn, this.products, changedOrdinals,
+                CatalogSnapshot::price);
+        this.ratingColumn = new NumericColumn(previous.ratingColumn, this.products, changedOrdinals,
+                Product::getAverageRating);
+        this.ratingSegments = ratingSegments;
+        for (SortKey key : SortKey.values()) {
+            putSortIndex(key, mergeSortIndex(key, previous, changed, changedOrdinals));
+        }
+    }
+
+    // Only the ratings of the changed products differ from previous. Besides copying the arrays indexed by ordinal or
+    // by rating order, which are as long as the catalog, this only reads the changed products
+    private CatalogSnapshot(CatalogSnapshot previous, long version, List<Product> products,
+            RatingSegment[] ratingSegments, Bitmap changed) {
+        int[] changedOrdinals = IntStream.iterate(changed.nextSetBit(0), ordinal -> ordinal >= 0,
+                ordinal -> changed.nextSetBit(ordinal + 1)).toArray();
+        this.version = version;
+        this.contentVersion = previous.contentVersion;
+        this.products = Collections.unmodifiableList(products);
+        this.live = previous.live;
+        this.removed = previous.removed;
+        this.contentHash = contentHash(previous.contentHash, previous.products, this.products, changedOrdinals);
+        if (removed == 0) {
+            this.liveProducts = this.products;
+        } else {
+            Product[] liveProducts = previous.liveProducts.toArray(Product[]::new);
+            int[] livePositions = live.countBefore(changedOrdinals);
+            for (int i = 0; i < changedOrdinals.length; i++) {
+                liveProducts[livePositions[i]] = this.products.get(changedOrdinals[i]);
+            }
+            this.liveProducts = Collections.unmodifiableList(Arrays.asList(liveProducts));
+        }
+        this.idIndex = previous.idIndex;
+        this.nameIndex = previous.nameIndex;
+        this.specificationIndex = previous.specificationIndex;
+        this.priceColumn = previous.priceColumn;
+        this.ratingColumn = new NumericColumn(previous.ratingColumn, this.products, changedOrdinals,
+                Product::getAverageRating);
+        this.ratingSegments = ratingSegments;
+        sortIndexes.putAll(previous.sortIndexes);
+        ranks.putAll(previous.ranks);
+        moveInSortIndex(SortKey.RATING, previous, changedOrdinals);
+    }
+
+    public static Builder builder(long version) {
+        return new Builder(version);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Version of the last snapshot that changed more than ratings. Results that do not depend on ratings hold for
+     * every snapshot with the same content version, apart from the rating aggregates of their products.
+     */
+    public long getContentVersion() {
+        return contentVersion;
+    }
+
+    /**
+     * Hash of the content of the catalog, the same for the same products in every process.
+     */
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    private static long contentHash(long previousHash, List<Product> previous, List<Product> products,
+            int[] changedOrdinals) {
+        long hash = previousHash;
+        for (int ordinal : changedOrdinals) {
+            Product before = ordinal < previous.size() ? previous.get(ordinal) : null;
+            Product after = products.get(ordinal);
+            hash += (after == null ? 0 : after.getContentHash()) - (before == null ? 0 : before.getContentHash());
+        }
+        return hash;
+    }
+
+    /**
+     * Products of the catalog in ordinal order, without the removed ones.
+     */
+    public List<Product> getProducts() {
+        return liveProducts;
+    }
+
+    public int size() {
+        return products.size() - removed;
+    }
+
+    public CatalogSnapshot apply(long version, List<Product> upserts, Collection<String> deletes) {
+        return apply(version, upserts, Map.of(), deletes);
+    }
+
+    /**
+     * Returns a catalog where each of the {@code upserts} replaces the product with the same id, or is appended when
+     * the id is new, and the products of {@code deletes} are removed; an id in both lists ends up removed. An upsert
+     * takes its ratings from {@code ratings}, by product id, and otherwise the catalog copies it and moves the rating
+     * list of the copy to a new segment. Only the index entries of the changed products are rewritten: untouched posting lists and rating
+     * segments are shared with this snapshot and sort indexes are merged instead of sorted again. Removed products
+     * leave an empty ordinal behind until enough of them pile up to rebuild the catalog. Returns this snapshot when
+     * nothing changes.
+     */
+    public CatalogSnapshot apply(long version, List<Product> upserts, Map<String, RatingSegment> ratings,
+            Collection<String> deletes) {
+        List<Product> next = new ArrayList<>(products);
+        Bitmap changed = new Bitmap(products.size() + upserts.size());
+        Map<String, Integer> appended = new HashMap<>();
+        for (Product product : upserts) {
+            String productId = Objects.requireNonNull(product.getProductId());
+            int ordinal = idIndex.ordinalOf(productId);
+            if (ordinal < 0) {
+                ordinal = appended.computeIfAbsent(productId, id -> {
+                    next.add(null);
+                    return next.size() - 1;
+                });
+            }
+            next.set(ordinal, product);
+            changed.set(ordinal);
+        }
+        List<String> removedIds = new ArrayList<>();
+        for (String productId : deletes) {
+            int ordinal = idIndex.ordinalOf(productId);
+            if (ordinal >= 0) {
+                removedIds.add(productId);
+            } else {
+                ordinal = appended.getOrDefault(productId, -1);
+            }
+            if (ordinal >= 0) {
+                next.set(ordinal, null);
+                changed.set(ordinal);
+            }
+        }
+        if (changed.isEmpty()) {
+            return this;
+        }
+        int tombstones = removed;
+        for (int ordinal = changed.nextSetBit(0); ordinal >= 0; ordinal = changed.nextSetBit(ordinal + 1)) {
+            if (next.get(ordinal) == null) {
+                tombstones++;
+            }
+        }
+        RatingSegment[] segments = Arrays.copyOf(ratingSegments, next.size());
+        for (int ordinal = changed.nextSetBit(0); ordinal >= 0; ordinal = changed.nextSetBit(ordinal + 1)) {
+            Product product = next.get(ordinal);
+            if (product == null) {
+                segments[ordinal] = null;
+            } else if (ratings.containsKey(product.getProductId())) {
+                segments[ordinal] = ratings.get(product.getProductId());
+            } else {
+                // The upsert belongs to the caller, the catalog detaches the ratings of its own copy
+                var copy = product.copy();
+                next.set(ordinal, copy);
+                segments[ordinal] = new RatingSegment(copy.detachRatings());
+            }
+        }
+        if (tombstones * COMPACTION_RATIO > next.size()) {
+            var builder = builder(version);
+            for (int ordinal = 0; ordinal < next.size(); ordinal++) {
+                if (next.get(ordinal) != null) {
+                    builder.add(next.get(ordinal), segments[ordinal]);
+                }
+            }
+            return builder.build();
+        }
+        int[] addedOrdinals = IntStream.range(products.size(), next.size())
+                .filter(ordinal -> next.get(ordinal) != null)
+                .toArray();
+        return new CatalogSnapshot(this, version, next, segments, changed, removedIds, addedOrdinals, tombstones);
+    }
+
+    /**
+     * Returns a catalog where each of the {@code rated} products, which must be in this catalog, replaces the one with
+     * the same id and takes its ratings from {@code ratings}. Only the ratings and the average rating may differ
+     * from the replaced product, so every index except the ones over the average rating is shared with this snapshot.
+     * Those are patched rather than rebuilt: besides one binary search in the rating order per rated product, no other
+     * product is read. The arrays indexed by ordinal or by rating order are still copied whole, so the cost also grows
+     * with the size of the catalog, by a few array copies. Unlike {@link #apply} this returns a new snapshot of the
+     * given version even when nothing is rated.
+     */
+    public CatalogSnapshot applyRatings(long version, List<Product> rated, Map<String, RatingSegment> ratings) {
+        List<Product> next = new ArrayList<>(products);
+        RatingSegment[] segments = ratingSegments.clone();
+        Bitmap changed = new Bitmap(products.size());
+        for (Product product : rated) {
+            int ordinal = idIndex.ordinalOf(product.getProductId());
+            if (ordinal < 0) {
+                throw new IllegalArgumentException("Product not in the catalog: " + product.getProductId());
+            }
+            next.set(ordinal, product);
+            segments[ordinal] = Objects.requireNonNull(ratings.get(product.getProductId()));
+            changed.set(ordinal);
+        }
+        return new CatalogSnapshot(this, version, next, segments, changed);
+    }
+
+    public Product getById(String productId) {
+        int ordinal = idIndex.ordinalOf(productId);
+        return ordinal < 0 ? null : products.get(ordinal);
+    }
+
+    /**
+     * Rating segment of the product, or null when no product has the given id.
+     */
+    public RatingSegment getRatings(String productId) {
+        int ordinal = idIndex.ordinalOf(productId);
+        return ordinal < 0 ? null : ratingSegments[ordinal];
+    }
+
+    /**
+     * Ordinals of the products whose name contains the given text, ignoring case.
+     */
+    public Bitmap matchName(String name) {
+        return nameIndex.search(name);
+    }
+
+    /**
+     * Removes from {@code candidates} the products without a specification {@code key} whose value contains
+     * {@code value}, both ignoring case.
+     */
+    public void retainSpecification(Bitmap candidates, String key, String value) {
+        candidates.and(specificationIndex.match(key, value, products.size()));
+    }
+
+    /**
+     * Removes from {@code candidates} the products whose price is outside {@code [min, max]}.
+     */
+    public void retainPrice(Bitmap candidates, double min, double max) {
+        priceColumn.retainBetween(candidates, min, max);
+    }
+
+    /**
+     * Removes from {@code candidates} the products whose average rating is outside {@code [min, max]}.
+     */
+    public void retainRating(Bitmap candidates, double min, double max) {
+        ratingColumn.retainBetween(candidates, min, max);
+    }
+
+    // Every product still in the catalog, the starting point of a search without conditions
+    Bitmap allProducts() {
+        return Bitmap.copyOf(live, live.size());
+    }
+
+    public Bitmap search(SearchQuery query) {
+        return QueryPlanner.execute(this, query, new ArrayList<>());
+    }
+
+    public QueryPlanRecord explain(SearchQuery query) {
+        return QueryPlanner.explain(this, query);
+    }
+
+    SearchPredicate namePredicate(String name) {
+        return nameIndex.predicate(name);
+    }
+
+    SearchPredicate specificationPredicate(String key, String value) {
+        return specificationIndex.predicate(key, value, products.size());
+    }
+
+    SearchPredicate rangePredicate(SortKey key, double min, double max) {
+        return new RangePredicate(key, key == SortKey.PRICE ? priceColumn : ratingColumn, min, max);
+    }
+
+    public List<Product> select(Bitmap ordinals) {
+        List<Product> result = new ArrayList<>(ordinals.cardinality());
+        for (int ordinal = ordinals.nextSetBit(0); ordinal >= 0; ordinal = ordinals.nextSetBit(ordinal + 1)) {
+            result.add(products.get(ordinal));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Lazily walks the selected products in catalog order, without collecting them.
+     */
+    public Stream<Product> stream(Bitmap ordinals) {
+        return IntStream.iterate(ordinals.nextSetBit(0), ordinal -> ordinal >= 0,
+                        ordinal -> ordinals.nextSetBit(ordinal + 1))
+                .mapToObj(products::get);
+    }
+
+    public List<Product> page(SortKey key, boolean descending, int page, int size) {
+        int[] index = sortIndexes.get(key);
+        int pageSize = Math.max(size, 0);
+        int fromIndex = (int) Math.min((long) Math.max(page, 0) * pageSize, index.length);
+        int toIndex = (int) Math.min((long) fromIndex + pageSize, index.length);
+        List<Product> result = new ArrayList<>(toIndex - fromIndex);
+        for (int i = fromIndex; i < toIndex; i++) {
+            int position = descending ? index.length - 1 - i : i;
+            result.add(products.get(index[position]));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Returns up to {@code size} products that follow the cursor in its order, or the first ones when the cursor is
+     * null. The start is found with a binary search on the sort index, so deep pages cost the same as the first one.
+     */
+    public List<Product> pageAfter(SortKey key, boolean descending, PageCursor cursor, int size) {
+        int[] index = sortIndexes.get(key);
+        int pageSize = Math.max(size, 0);
+        List<Product> result = new ArrayList<>(Math.min(pageSize, index.length));
+        if (descending) {
+            int start = cursor == null ? index.length
+                    : firstPosition(index, product -> key.compare(cursor.value(), cursor.productId(), product) <= 0);
+            for (int position = start - 1; position >= 0 && result.size() < pageSize; position--) {
+                result.add(products.get(index[position]));
+            }
+        } else {
+            int start = cursor == null ? 0
+                    : firstPosition(index, product -> key.compare(cursor.value(), cursor.productId(), product) < 0);
+            for (int position = start; position < index.length && result.size() < pageSize; position++) {
+                result.add(products.get(index[position]));
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private int firstPosition(int[] index, Predicate<Product> condition) {
+        int low = 0;
+        int high = index.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (condition.test(products.get(index[middle]))) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns one page of the matching products in the requested order, selecting only the first
+     * {@code (page + 1) * size} matches instead of sorting all of them.
+     */
+    public List<Product> page(Bitmap matches, SortKey key, boolean descending, int page, int size) {
+        int pageSize = Math.max(size, 0);
+        int fromIndex = (int) Math.min((long) Math.max(page, 0) * pageSize, products.size());
+        int limit = (int) Math.min((long) fromIndex + pageSize, products.size());
+        if (limit <= fromIndex) {
+            return List.of();
+        }
+        int[] index = sortIndexes.get(key);
+        int[] positions = TopK.positions(matches, ranks.get(key), descending, limit);
+        List<Product> result = new ArrayList<>(Math.max(positions.length - fromIndex, 0));
+        for (int i = fromIndex; i < positions.length; i++) {
+            result.add(products.get(index[positions[i]]));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private int[] buildSortIndex(SortKey key) {
+        return IntStream.range(0, products.size())
+                .boxed()
+                .sorted((a, b) -> key.comparator().compare(products.get(a), products.get(b)))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Sort index of {@code previous} without the changed ordinals, with the changed products that are still in the
+     * catalog merged back in. Their positions are found by binary search on the previous index, which is ordered by
+     * the previous products, so the cost is a sort of the changes and one copy of the index.
+     */
+    private int[] mergeSortIndex(SortKey key, CatalogSnapshot previous, Bitmap changed, int[] changedOrdinals) {
+        Comparator<Product> comparator = key.comparator();
+        int[] added = IntStream.of(changedOrdinals)
+                .filter(ordinal -> products.get(ordinal) != null)
+                .boxed()
+                .sorted((a, b) -> comparator.compare(products.get(a), products.get(b)))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        int[] previousIndex = previous.sortIndexes.get(key);
+        int[] insertAt = new int[added.length];
+        for (int i = 0; i < added.length; i++) {
+            Product product = products.get(added[i]);
+            insertAt[i] = previous.firstPosition(previousIndex, other -> comparator.compare(product, other) < 0);
+        }
+        int[] index = new int[previousIndex.length + added.length];
+        int count = 0;
+        int next = 0;
+        for (int position = 0; position <= previousIndex.length; position++) {
+            while (next < added.length && insertAt[next] == position) {
+                index[count++] = added[next++];
+            }
+            if (position < previousIndex.length && !changed.get(previousIndex[position])) {
+                index[count++] = previousIndex[position];
+            }
+        }
+        return Arrays.copyOf(index, count);
+    }
+
+    /**
+     * Sort index of {@code previous} with the changed products, which must all still be in the catalog, taken out of
+     * their positions and put back where they belong now. The runs of the index between those positions are copied
+     * as they are, and only the ranks of the ordinals that moved are rewritten.
+     */
+    private void moveInSortIndex(SortKey key, CatalogSnapshot previous, int[] changedOrdinals) {
+        Comparator<Product> comparator = key.comparator();
+        int[] previousIndex = previous.sortIndexes.get(key);
+        int[] previousRank = previous.ranks.get(key);
+        int[] removedAt = new int[changedOrdinals.length];
+        for (int i = 0; i < changedOrdinals.length; i++) {
+            removedAt[i] = previousRank[changedOrdinals[i]];
+        }
+        Arrays.sort(removedAt);
+        int[] added = IntStream.of(changedOrdinals)
+                .boxed()
+                .sorted((a, b) -> comparator.compare(products.get(a), products.get(b)))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        int[] insertAt = new int[added.length];
+        for (int i = 0; i < added.length; i++) {
+            Product product = products.get(added[i]);
+            insertAt[i] = previous.firstPosition(previousIndex, other -> comparator.compare(product, other) < 0);
+        }
+        int[] index = new int[previousIndex.length];
+        int count = 0;
+        int from = 0;
+        int removedCount = 0;
+        int addedCount = 0;
+        int firstMoved = previousIndex.length;
+        while (from < previousIndex.length || addedCount < added.length) {
+            int nextRemoved = removedCount < removedAt.length ? removedAt[removedCount] : previousIndex.length;
+            int nextAdded = addedCount < added.length ? insertAt[addedCount] : previousIndex.length;
+            int to = Math.min(nextRemoved, nextAdded);
+            System.arraycopy(previousIndex, from, index, count, to - from);
+            count += to - from;
+            from = to;
+            if (addedCount < added.length && insertAt[addedCount] == from) {
+                firstMoved = Math.min(firstMoved, count);
+                index[count++] = added[addedCount++];
+            } else if (removedCount < removedAt.length && removedAt[removedCount] == from) {
+                firstMoved = Math.min(firstMoved, count);
+                from++;
+                removedCount++;
+            }
+        }
+        // As many products leave as come back, so the positions past the last removal or insertion are unchanged
+        int lastMoved = Math.max(removedAt.length == 0 ? 0 : removedAt[removedAt.length - 1] + 1,
+                added.length == 0 ? 0 : insertAt[insertAt.length - 1]);
+        int[] rank = previousRank.clone();
+        for (int position = firstMoved; position < lastMoved; position++) {
+            rank[index[position]] = position;
+        }
+        sortIndexes.put(key, index);
+        ranks.put(key, rank);
+    }
+
+    private void putSortIndex(SortKey key, int[] index) {
+        int[] rank = new int[products.size()];
+        for (int position = 0; position < index.length; position++) {
+            rank[index[position]] = position;
+        }
+        sortIndexes.put(key, index);
+        ranks.put(key, rank);
+    }
+
+    private static double price(Product product) {
+        return product.getPrice() == null ? Double.NaN : product.getPrice();
+    }
+
+    /**
+     * Range over a numeric column. The matching products are a contiguous run of the sort index for the same
+     * attribute, so counting them is two binary searches and evaluating them only visits the matches.
+     */
+    private final class RangePredicate implements SearchPredicate {
+        private final SortKey key;
+        private final NumericColumn column;
+        private final double min;
+        private final double max;
+        private final int from;
+        private final int to;
+
+        private RangePredicate(SortKey key, NumericColumn column, double min, double max) {
+            this.key = key;
+            this.column = column;
+            this.min = min;
+            this.max = max;
+            int[] index = sortIndexes.get(key);
+            // Missing values are NaN and sorted last, where both conditions are false
+            this.from = firstPosition(index, value -> !(value < min));
+            this.to = Math.max(from, firstPosition(index, value -> !(value <= max)));
+        }
+
+        private int firstPosition(int[] index, DoublePredicate condition) {
+            int low = 0;
+            int high = index.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (condition.test(column.get(index[middle]))) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return low;
+        }
+
+        @Override
+        public String describe() {
+            return key.name().toLowerCase() + " between " + min + " and " + max;
+        }
+
+        @Override
+        public int estimate() {
+            return to - from;
+        }
+
+        @Override
+        public Bitmap evaluate() {
+            int[] index = sortIndexes.get(key);
+            Bitmap result = new Bitmap(products.size());
+            for (int position = from; position < to; position++) {
+                result.set(index[position]);
+            }
+            return result;
+        }
+
+        @Override
+        public void retain(Bitmap candidates) {
+            column.retainBetween(candidates, min, max);
+        }
+    }
+
+    /**
+     * Collects products one at a time while they are parsed, the indexes are built once in {@link #build()}. The
+     * catalog holds a copy of each product, whose rating list goes to a rating segment of the catalog; the product
+     * passed in keeps its own.
+     */
+    public static final class Builder {
+        private final long version;
+        private final List<Product> products = new ArrayList<>();
+        private final List<RatingSegment> ratingSegments = new ArrayList<>();
+
+        private Builder(long version) {
+            this.version = version;
+        }
+
+        public Builder add(Product product) {
+            var copy = product.copy();
+            return add(copy, new RatingSegment(copy.detachRatings()));
+        }
+
+        /**
+         * Adds a product whose ratings are already in a segment, as with a product that keeps the ratings of the
+         * catalog it replaces.
+         */
+        public Builder add(Product product, RatingSegment ratings) {
+            products.add(Objects.requireNonNull(product));
+            ratingSegments.add(ratings);
+            return this;
+        }
+
+        public Builder addAll(List<Product> products) {
+            products.forEach(this::add);
+            return this;
+        }
+
+        public CatalogSnapshot build() {
+            return new CatalogSnapshot(this);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package org.example.productlist.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Durable copy of the catalog in a data directory: checkpoints in the {@link BinaryCatalog} format, and a
+ * {@link WriteAheadLog} segment with the changes made after each of them. A checkpoint and the segment that follows
+ * it share a sequence number, so recovery loads the newest checkpoint and replays the segments from its number on.
+ * <p>
+ * Appends and checkpoints must come from one writer at a time, in the order the changes were applied.
+ */
+public final class CatalogStore implements AutoCloseable {
+
+    private static final String CHECKPOINT_PREFIX = "catalog-";
+    private static final String CHECKPOINT_SUFFIX = ".bin";
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogStore.class);
+
+    private final Path directory;
+    private final long checkpointBytes;
+    private final ExecutorService checkpointer = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("catalog-checkpoint").daemon().factory());
+    private long sequence = -1;
+    private long segmentBytes;
+    private WriteAheadLog log;
+
+    /**
+     * Opens the data directory, creating it when needed. A checkpoint is due once the current segment holds
+     * {@code checkpointBytes}.
+     */
+    public CatalogStore(Path directory, long checkpointBytes) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.checkpointBytes = checkpointBytes;
+    }
+
+    /**
+     * Newest checkpoint, or null while the catalog still comes from the product file.
+     */
+    public Path latestCheckpoint() throws IOException {
+        long latest = latest(CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX);
+        return latest < 0 ? null : file(CHECKPOINT_PREFIX, latest, CHECKPOINT_SUFFIX);
+    }
+
+    /**
+     * Hands the logged changes made after the newest checkpoint to the consumer, oldest first, then opens the log
+     * for appends. Returns the number of changes.
+     */
+    public int recover(Consumer<byte[]> consumer) throws IOException {
+        long checkpoint = Math.max(latest(CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX), 0);
+        int records = 0;
+        sequence = checkpoint;
+        for (long segment : sequences(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (segment >= checkpoint) {
+                Path file = file(SEGMENT_PREFIX, segment, SEGMENT_SUFFIX);
+                records += WriteAheadLog.replay(file, consumer);
+                segmentBytes = Files.size(file);
+                sequence = segment;
+            }
+        }
+        log = new WriteAheadLog(file(SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+        return records;
+    }
+
+    /**
+     * Logs one change. The future completes once the change is on disk, together with the others of its batch.
+     */
+    public CompletableFuture<Void> append(byte[] change) {
+        segmentBytes += WriteAheadLog.RECORD_HEADER_BYTES + change.length;
+        return log.append(change);
+    }
+
+    /**
+     * Lets the log take changes again after one failed to be written, see {@link WriteAheadLog#reset}.
+     */
+    public CompletableFuture<Void> resetLog() {
+        return log.reset();
+    }
+
+    public boolean isCheckpointDue() {
+        return segmentBytes >= checkpointBytes;
+    }
+
+    /**
+     * Continues the log in a new segment and, in the background and once every change logged before is on disk,
+     * writes the catalog as the checkpoint that segment starts from. Older checkpoints and segments are deleted
+     * when it is done. The catalog must include every change logged so far.
+     */
+    public CompletableFuture<Void> checkpoint(CatalogSnapshot catalog) {
+        long next = ++sequence;
+        segmentBytes = 0;
+        return log.rotate(file(SEGMENT_PREFIX, next, SEGMENT_SUFFIX))
+                .thenRunAsync(() -> writeCheckpoint(next, catalog), checkpointer);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        checkpointer.shutdown();
+        checkpointer.awaitTermination(1, TimeUnit.MINUTES);
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    private void writeCheckpoint(long next, CatalogSnapshot catalog) {
+        long start = System.nanoTime();
+        Path checkpoint = file(CHECKPOINT_PREFIX, next, CHECKPOINT_SUFFIX);
+        Path temporary = directory.resolve(checkpoint.getFileName() + ".tmp");
+        try {
+            BinaryCatalog.write(catalog.getProducts(),
+                    product -> catalog.getRatings(product.getProductId()).asList(), temporary);
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            // Readers only ever see a complete checkpoint under its final name
+            Files.move(temporary, checkpoint, StandardCopyOption.ATOMIC_MOVE);
+            for (long older : sequences(CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX)) {
+                if (older < next) {
+                    Files.deleteIfExists(file(CHECKPOINT_PREFIX, older, CHECKPOINT_SUFFIX));
+                }
+            }
+            for (long older : sequences(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+                if (older < next) {
+                    Files.deleteIfExists(file(SEGMENT_PREFIX, older, SEGMENT_SUFFIX));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        logger.info("Checkpoint {} written with {} products in {} ms", next, catalog.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private long latest(String prefix, String suffix) throws IOException {
+        List<Long> sequences = sequences(prefix, suffix);
+        return sequences.isEmpty() ? -1 : sequences.get(sequences.size() - 1);
+    }
+
+    private List<Long> sequences(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .map(name -> name.substring(prefix.length(), name.length() - suffix.length()))
+                    .filter(number -> !number.isEmpty() && number.chars().allMatch(Character::isDigit))
+                    .map(Long::parseLong)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path file(String prefix, long sequence, String suffix) {
+        return directory.resolve(String.format("%s%016d%s", prefix, sequence, suffix));
+    }
+}
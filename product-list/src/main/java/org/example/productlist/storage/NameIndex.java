@@ -0,0 +1,196 @@
+package org.example.productlist.storage;
+
+import org.example.productlist.model.entity.Product;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trigram index over lower-cased product names. Queries of three or more characters intersect the posting lists of
+ * their trigrams and only verify the surviving candidates, so the cost follows the number of matches instead of the
+ * catalog size. The final check is the same {@code contains} on the lower-cased name the search always used.
+ */
+final class NameIndex {
+
+    private static final int GRAM = 3;
+    private static final int[] NO_POSTINGS = new int[0];
+
+    private final String[] lowerCaseNames;
+    private final Map<Long, int[]> postings;
+
+    NameIndex(List<Product> products) {
+        lowerCaseNames = new String[products.size()];
+        Map<Long, PostingsBuilder> builders = new HashMap<>();
+        for (int ordinal = 0; ordinal < products.size(); ordinal++) {
+            String name = products.get(ordinal).getName();
+            if (name == null) {
+                continue;
+            }
+            String lowerCaseName = name.toLowerCase();
+            lowerCaseNames[ordinal] = lowerCaseName;
+            for (int i = 0; i + GRAM <= lowerCaseName.length(); i++) {
+                builders.computeIfAbsent(trigram(lowerCaseName, i), k -> new PostingsBuilder()).add(ordinal);
+            }
+        }
+        postings = new HashMap<>(builders.size() * 2);
+        builders.forEach((gram, builder) -> postings.put(gram, builder.toArray()));
+    }
+
+    /**
+     * Copy of {@code previous} where the products at the sorted {@code changed} ordinals were replaced, added or
+     * removed (null). Only the posting lists of the trigrams of their old and new names are rewritten, every other
+     * list is shared with the previous index.
+     */
+    NameIndex(NameIndex previous, List<Product> products, int[] changed) {
+        lowerCaseNames = Arrays.copyOf(previous.lowerCaseNames, products.size());
+        Set<Long> touched = new HashSet<>();
+        Map<Long, PostingsBuilder> added = new HashMap<>();
+        for (int ordinal : changed) {
+            String previousName = ordinal < previous.lowerCaseNames.length ? previous.lowerCaseNames[ordinal] : null;
+            for (int i = 0; previousName != null && i + GRAM <= previousName.length(); i++) {
+                touched.add(trigram(previousName, i));
+            }
+            Product product = products.get(ordinal);
+            String name = product == null || product.getName() == null ? null : product.getName().toLowerCase();
+            lowerCaseNames[ordinal] = name;
+            for (int i = 0; name != null && i + GRAM <= name.length(); i++) {
+                long gram = trigram(name, i);
+                touched.add(gram);
+                added.computeIfAbsent(gram, k -> new PostingsBuilder()).add(ordinal);
+            }
+        }
+        postings = new HashMap<>(previous.postings);
+        for (long gram : touched) {
+            PostingsBuilder builder = added.get(gram);
+            int[] list = PostingsBuilder.replace(previous.postings.getOrDefault(gram, NO_POSTINGS), changed,
+                    builder == null ? NO_POSTINGS : builder.toArray());
+            if (list.length == 0) {
+                postings.remove(gram);
+            } else {
+                postings.put(gram, list);
+            }
+        }
+    }
+
+    Bitmap search(String name) {
+        return search(name.toLowerCase(), lowerCaseNames.length);
+    }
+
+    SearchPredicate predicate(String name) {
+        return new NamePredicate(name);
+    }
+
+    private Bitmap search(String query, int estimate) {
+        Bitmap result = new Bitmap(lowerCaseNames.length);
+        if (query.length() < GRAM) {
+            // One or two characters match most of the catalog anyway, a scan is as cheap as any index
+            for (int ordinal = 0; ordinal < lowerCaseNames.length; ordinal++) {
+                if (contains(ordinal, query)) {
+                    result.set(ordinal);
+                }
+            }
+            return result;
+        }
+        if (estimate == 0) {
+            return result;
+        }
+        for (int candidate : candidates(query)) {
+            if (lowerCaseNames[candidate].contains(query)) {
+                result.set(candidate);
+            }
+        }
+        return result;
+    }
+
+    private boolean contains(int ordinal, String query) {
+        return lowerCaseNames[ordinal] != null && lowerCaseNames[ordinal].contains(query);
+    }
+
+    private int estimate(String query) {
+        if (query.length() < GRAM) {
+            return lowerCaseNames.length;
+        }
+        int estimate = lowerCaseNames.length;
+        for (int i = 0; i + GRAM <= query.length(); i++) {
+            estimate = Math.min(estimate, postings.getOrDefault(trigram(query, i), NO_POSTINGS).length);
+        }
+        return estimate;
+    }
+
+    private int[] candidates(String query) {
+        int[][] lists = new int[query.length() - GRAM + 1][];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = postings.getOrDefault(trigram(query, i), NO_POSTINGS);
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.length));
+        int[] candidates = lists[0];
+        for (int i = 1; i < lists.length && candidates.length > 0; i++) {
+            candidates = intersect(candidates, lists[i]);
+        }
+        return candidates;
+    }
+
+    private static int[] intersect(int[] left, int[] right) {
+        int[] result = new int[Math.min(left.length, right.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[count++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static long trigram(String value, int from) {
+        return (long) value.charAt(from) << 32 | (long) value.charAt(from + 1) << 16 | value.charAt(from + 2);
+    }
+
+    private final class NamePredicate implements SearchPredicate {
+        private final String name;
+        private final String query;
+        private final int estimate;
+
+        private NamePredicate(String name) {
+            this.name = name;
+            this.query = name.toLowerCase();
+            this.estimate = NameIndex.this.estimate(query);
+        }
+
+        @Override
+        public String describe() {
+            return "name contains '" + name + "'";
+        }
+
+        @Override
+        public int estimate() {
+            return estimate;
+        }
+
+        @Override
+        public Bitmap evaluate() {
+            return search(query, estimate);
+        }
+
+        @Override
+        public void retain(Bitmap candidates) {
+            for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+                if (!contains(ordinal, query)) {
+                    candidates.clear(ordinal);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.productlist.storage;
+
+import org.example.productlist.model.entity.Product;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Primitive column of one numeric product attribute, indexed by ordinal. Missing values are stored as NaN, which
+ * never falls inside a range.
+ */
+final class NumericColumn {
+
+    private final double[] values;
+
+    NumericColumn(List<Product> products, ToDoubleFunction<Product> attribute) {
+        values = new double[products.size()];
+        for (int ordinal = 0; ordinal < values.length; ordinal++) {
+            values[ordinal] = attribute.applyAsDouble(products.get(ordinal));
+        }
+    }
+
+    /**
+     * Copy of {@code previous} with the values of the products at the {@code changed} ordinals recomputed. Removed
+     * products (null) become NaN.
+     */
+    NumericColumn(NumericColumn previous, List<Product> products, int[] changed, ToDoubleFunction<Product> attribute) {
+        values = Arrays.copyOf(previous.values, products.size());
+        for (int ordinal : changed) {
+            Product product = products.get(ordinal);
+            values[ordinal] = product == null ? Double.NaN : attribute.applyAsDouble(product);
+        }
+    }
+
+    double get(int ordinal) {
+        return values[ordinal];
+    }
+
+    /**
+     * Clears every candidate whose value is outside {@code [min, max]}. Works a word of 64 ordinals at a time and
+     * skips words that have no candidates left, without allocating.
+     */
+    void retainBetween(Bitmap candidates, double min, double max) {
+        long[] words = candidates.words();
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            if (word == 0) {
+                continue;
+            }
+            int base = w << 6;
+            int end = Math.min(64, values.length - base);
+            long mask = 0;
+            for (int bit = 0; bit < end; bit++) {
+                double value = values[base + bit];
+                mask |= (value >= min & value <= max ? 1L : 0L) << bit;
+            }
+            words[w] = word & mask;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.productlist.storage;
+
+import org.example.productlist.exception.InvalidCursorException;
+import org.example.productlist.model.entity.Product;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Position after the last product of a page: sort key, direction, the product's sort value and its productId. It is
+ * exchanged with clients as an opaque URL-safe token and stays valid when the catalog changes between calls.
+ */
+public record PageCursor(SortKey key, boolean descending, Comparable<?> value, String productId) {
+
+    public static PageCursor after(SortKey key, boolean descending, Product product) {
+        return new PageCursor(key, descending, key.value(product), product.getProductId());
+    }
+
+    public String encode() {
+        var bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(key.ordinal());
+            out.writeBoolean(descending);
+            out.writeBoolean(value != null);
+            if (value != null) {
+                switch (key) {
+                    case NAME -> out.writeUTF((String) value);
+                    case PRICE, RATING -> out.writeDouble((Double) value);
+                    case DAT_CREATION -> out.writeLong(((Date) value).getTime());
+                }
+            }
+            out.writeBoolean(productId != null);
+            if (productId != null) {
+                out.writeUTF(productId);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    public static PageCursor decode(String token) {
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            SortKey key = SortKey.values()[in.readUnsignedByte()];
+            boolean descending = in.readBoolean();
+            Comparable<?> value = null;
+            if (in.readBoolean()) {
+                value = switch (key) {
+                    case NAME -> in.readUTF();
+                    case PRICE, RATING -> in.readDouble();
+                    case DAT_CREATION -> new Date(in.readLong());
+                };
+            }
+            String productId = in.readBoolean() ? in.readUTF() : null;
+            return new PageCursor(key, descending, value, productId);
+        } catch (IOException | IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidCursorException("Invalid page cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.productlist.storage;
+
+import java.util.Arrays;
+
+/**
+ * Growable sorted list of ordinals. Products are added in ordinal order, so an ordinal that is added twice in a row
+ * only needs to be compared with the last entry.
+ */
+final class PostingsBuilder {
+
+    private int[] ordinals = new int[4];
+    private int count;
+
+    void add(int ordinal) {
+        if (count > 0 && ordinals[count - 1] == ordinal) {
+            return;
+        }
+        if (count == ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, count * 2);
+        }
+        ordinals[count++] = ordinal;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(ordinals, count);
+    }
+
+    /**
+     * Returns the sorted {@code postings} without the {@code removed} ordinals and merged with the {@code added}
+     * ones. All three arrays are sorted and the input arrays are left untouched.
+     */
+    static int[] replace(int[] postings, int[] removed, int[] added) {
+        int[] result = new int[postings.length + added.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < postings.length || j < added.length) {
+            if (j == added.length || i < postings.length && postings[i] < added[j]) {
+                if (Arrays.binarySearch(removed, postings[i]) < 0) {
+                    result[count++] = postings[i];
+                }
+                i++;
+            } else {
+                if (i < postings.length && postings[i] == added[j]) {
+                    i++;
+                }
+                result[count++] = added[j++];
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
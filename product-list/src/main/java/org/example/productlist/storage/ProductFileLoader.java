@@ -0,0 +1,187 @@
+package org.example.productlist.storage;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.example.productlist.model.entity.Product;
+import org.example.productlist.model.entity.Rating;
+import org.example.productlist.model.entity.Specifications;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Loads a JSON array of products one element at a time, so the whole document is never held in memory. The parallel
+ * mode first tokenizes the file to find where each element starts and ends, then binds contiguous chunks of at most
+ * {@value #MAX_CHUNK_BYTES} bytes on several cores. Only two chunks per core are parsed or waiting for their turn at a
+ * time, so a slow early chunk does not let the later ones pile up in memory. The streaming mode reads the array
+ * sequentially from a single parser. Strings that repeat across products are interned while loading.
+ */
+public final class ProductFileLoader {
+
+    private static final int MIN_CHUNK_BYTES = 256 * 1024;
+    private static final int MAX_CHUNK_BYTES = 8 * 1024 * 1024;
+
+    private final ObjectReader reader;
+
+    public ProductFileLoader(ObjectMapper mapper) {
+        this.reader = mapper.readerFor(Product.class);
+    }
+
+    public List<Product> load(Path file) throws IOException {
+        List<Product> products = new ArrayList<>();
+        load(file, products::add);
+        return products;
+    }
+
+    /**
+     * Parses the file in parallel chunks and hands every product to the consumer, one at a time and in file order.
+     */
+    public void load(Path file, Consumer<Product> consumer) throws IOException {
+        ElementOffsets offsets = scan(file);
+        List<int[]> chunks = split(offsets, Files.size(file));
+        StringPool strings = new StringPool();
+        int window = Runtime.getRuntime().availableProcessors() * 2;
+        Deque<CompletableFuture<List<Product>>> inFlight = new ArrayDeque<>(window);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            int next = 0;
+            while (next < chunks.size() || !inFlight.isEmpty()) {
+                while (next < chunks.size() && inFlight.size() < window) {
+                    int[] chunk = chunks.get(next++);
+                    inFlight.add(CompletableFuture.supplyAsync(() -> parseChunk(channel, offsets, chunk, strings)));
+                }
+                inFlight.poll().join().forEach(consumer);
+            }
+        } catch (CompletionException e) {
+            inFlight.forEach(chunk -> chunk.cancel(false));
+            if (e.getCause() instanceof UncheckedIOException cause) {
+                throw cause.getCause();
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Reads the top-level array sequentially, binding and handing over one product at a time.
+     */
+    public void stream(Path file, Consumer<Product> consumer) throws IOException {
+        StringPool strings = new StringPool();
+        try (JsonParser parser = reader.getFactory().createParser(file.toFile())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of products in " + file);
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                consumer.accept(intern(reader.readValue(parser, Product.class), strings));
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new IOException("Unexpected token " + parser.currentToken() + " in " + file);
+            }
+        }
+    }
+
+    private ElementOffsets scan(Path file) throws IOException {
+        ElementOffsets offsets = new ElementOffsets();
+        try (JsonParser parser = reader.getFactory().createParser(file.toFile())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of products in " + file);
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                long start = parser.currentTokenLocation().getByteOffset();
+                parser.skipChildren();
+                offsets.add(start, parser.currentLocation().getByteOffset());
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new IOException("Unexpected token " + parser.currentToken() + " in " + file);
+            }
+        }
+        return offsets;
+    }
+
+    private List<int[]> split(ElementOffsets offsets, long fileSize) {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        long chunkBytes = Math.clamp(fileSize / (parallelism * 4L), MIN_CHUNK_BYTES, MAX_CHUNK_BYTES);
+        List<int[]> chunks = new ArrayList<>();
+        int from = 0;
+        for (int i = 0; i < offsets.count; i++) {
+            if (offsets.ends[i] - offsets.starts[from] >= chunkBytes || i == offsets.count - 1) {
+                chunks.add(new int[]{from, i + 1});
+                from = i + 1;
+            }
+        }
+        return chunks;
+    }
+
+    private List<Product> parseChunk(FileChannel channel, ElementOffsets offsets, int[] chunk, StringPool strings) {
+        long chunkStart = offsets.starts[chunk[0]];
+        byte[] bytes = new byte[Math.toIntExact(offsets.ends[chunk[1] - 1] - chunkStart)];
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, chunkStart + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of file at offset " + (chunkStart + buffer.position()));
+                }
+            }
+            List<Product> products = new ArrayList<>(chunk[1] - chunk[0]);
+            for (int i = chunk[0]; i < chunk[1]; i++) {
+                int offset = (int) (offsets.starts[i] - chunkStart);
+                int length = (int) (offsets.ends[i] - offsets.starts[i]);
+                products.add(intern(reader.readValue(bytes, offset, length), strings));
+            }
+            return products;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Product intern(Product product, StringPool strings) {
+        String productId = product.getProductId();
+        if (product.getSpecificationsList() != null) {
+            for (Specifications specification : product.getSpecificationsList()) {
+                specification.setKey(strings.intern(specification.getKey()));
+                specification.setValue(strings.intern(specification.getValue()));
+                if (Objects.equals(specification.getProductId(), productId)) {
+                    specification.setProductId(productId);
+                }
+            }
+        }
+        if (product.getRatingList() != null) {
+            for (Rating rating : product.getRatingList()) {
+                if (Objects.equals(rating.getProductId(), productId)) {
+                    rating.setProductId(productId);
+                }
+            }
+        }
+        return product;
+    }
+
+    private static final class ElementOffsets {
+        private long[] starts = new long[1024];
+        private long[] ends = new long[1024];
+        private int count;
+
+        private void add(long start, long end) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+            }
+            starts[count] = start;
+            ends[count] = end;
+            count++;
+        }
+    }
+}
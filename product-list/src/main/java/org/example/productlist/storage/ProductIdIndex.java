@@ -0,0 +1,178 @@
+package org.example.productlist.storage;
+
+import org.example.productlist.model.entity.Product;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Open addressing hash index from productId to product ordinal. Canonical lowercase UUID ids are packed into two
+ * longs, any other id falls back to a regular map. When an id appears more than once the first ordinal wins.
+ */
+final class ProductIdIndex {
+
+    private static final int EMPTY = -1;
+
+    private final long[] mostSignificantBits;
+    private final long[] leastSignificantBits;
+    private final int[] ordinals;
+    private final int mask;
+    private final Map<String, Integer> otherIds = new HashMap<>();
+    private int count;
+
+    ProductIdIndex(List<Product> products) {
+        int capacity = Integer.highestOneBit(Math.max(products.size(), 1) * 2 - 1) << 1;
+        mostSignificantBits = new long[capacity];
+        leastSignificantBits = new long[capacity];
+        ordinals = new int[capacity];
+        Arrays.fill(ordinals, EMPTY);
+        mask = capacity - 1;
+        for (int ordinal = 0; ordinal < products.size(); ordinal++) {
+            // Removed products leave an empty ordinal behind
+            if (products.get(ordinal) != null) {
+                add(products.get(ordinal).getProductId(), ordinal);
+            }
+        }
+    }
+
+    private ProductIdIndex(ProductIdIndex source) {
+        mostSignificantBits = source.mostSignificantBits.clone();
+        leastSignificantBits = source.leastSignificantBits.clone();
+        ordinals = source.ordinals.clone();
+        mask = source.mask;
+        otherIds.putAll(source.otherIds);
+        count = source.count;
+    }
+
+    /**
+     * Copy of this index without the {@code removedIds} and with the ids of the products at {@code addedOrdinals}.
+     * Only the changed slots are written; the table is rebuilt from {@code products} once it would be more than half
+     * full.
+     */
+    ProductIdIndex update(List<Product> products, List<String> removedIds, int[] addedOrdinals) {
+        if ((count + addedOrdinals.length) * 2 > ordinals.length) {
+            return new ProductIdIndex(products);
+        }
+        ProductIdIndex index = new ProductIdIndex(this);
+        removedIds.forEach(index::remove);
+        for (int ordinal : addedOrdinals) {
+            index.add(products.get(ordinal).getProductId(), ordinal);
+        }
+        return index;
+    }
+
+    int ordinalOf(String productId) {
+        if (productId == null) {
+            return EMPTY;
+        }
+        if (!isUuid(productId)) {
+            return otherIds.getOrDefault(productId, EMPTY);
+        }
+        long msb = mostSignificantBits(productId);
+        long lsb = leastSignificantBits(productId);
+        for (int slot = slot(msb, lsb); ordinals[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (mostSignificantBits[slot] == msb && leastSignificantBits[slot] == lsb) {
+                return ordinals[slot];
+            }
+        }
+        return EMPTY;
+    }
+
+    private void add(String productId, int ordinal) {
+        if (productId == null) {
+            return;
+        }
+        if (isUuid(productId)) {
+            insert(mostSignificantBits(productId), leastSignificantBits(productId), ordinal);
+        } else {
+            otherIds.putIfAbsent(productId, ordinal);
+        }
+    }
+
+    private void remove(String productId) {
+        if (productId == null) {
+            return;
+        }
+        if (!isUuid(productId)) {
+            otherIds.remove(productId);
+            return;
+        }
+        long msb = mostSignificantBits(productId);
+        long lsb = leastSignificantBits(productId);
+        int hole = slot(msb, lsb);
+        while (ordinals[hole] != EMPTY
+                && (mostSignificantBits[hole] != msb || leastSignificantBits[hole] != lsb)) {
+            hole = (hole + 1) & mask;
+        }
+        if (ordinals[hole] == EMPTY) {
+            return;
+        }
+        // Shift back the entries that follow in the same run, so lookups never stop early at the freed slot
+        for (int slot = (hole + 1) & mask; ordinals[slot] != EMPTY; slot = (slot + 1) & mask) {
+            int home = slot(mostSignificantBits[slot], leastSignificantBits[slot]);
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                mostSignificantBits[hole] = mostSignificantBits[slot];
+                leastSignificantBits[hole] = leastSignificantBits[slot];
+                ordinals[hole] = ordinals[slot];
+                hole = slot;
+            }
+        }
+        ordinals[hole] = EMPTY;
+        count--;
+    }
+
+    private void insert(long msb, long lsb, int ordinal) {
+        int slot = slot(msb, lsb);
+        while (ordinals[slot] != EMPTY) {
+            if (mostSignificantBits[slot] == msb && leastSignificantBits[slot] == lsb) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        mostSignificantBits[slot] = msb;
+        leastSignificantBits[slot] = lsb;
+        ordinals[slot] = ordinal;
+        count++;
+    }
+
+    private int slot(long msb, long lsb) {
+        long hash = (msb * 0x9E3779B97F4A7C15L) ^ lsb;
+        hash ^= hash >>> 32;
+        return (int) hash & mask;
+    }
+
+    static boolean isUuid(String id) {
+        if (id.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = id.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static long mostSignificantBits(String uuid) {
+        return hex(uuid, 0, 8) << 32 | hex(uuid, 9, 13) << 16 | hex(uuid, 14, 18);
+    }
+
+    static long leastSignificantBits(String uuid) {
+        return hex(uuid, 19, 23) << 48 | hex(uuid, 24, 36);
+    }
+
+    private static long hex(String value, int from, int to) {
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            result = result << 4 | Character.digit(value.charAt(i), 16);
+        }
+        return result;
+    }
+}
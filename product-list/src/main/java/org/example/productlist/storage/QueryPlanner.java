@@ -0,0 +1,68 @@
+package org.example.productlist.storage;
+
+import org.example.productlist.model.records.QueryPlanRecord;
+import org.example.productlist.model.records.QueryStageRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Orders the predicates of a search by their estimated number of matches. The most selective one is evaluated
+ * through its index and every other predicate only narrows the surviving candidates, in the same bitmap.
+ */
+final class QueryPlanner {
+
+    private QueryPlanner() {
+    }
+
+    static Bitmap execute(CatalogSnapshot catalog, SearchQuery query, List<QueryStageRecord> stages) {
+        List<SearchPredicate> predicates = predicates(catalog, query);
+        if (predicates.isEmpty()) {
+            return catalog.allProducts();
+        }
+        int[] estimates = predicates.stream().mapToInt(SearchPredicate::estimate).toArray();
+        Integer[] order = new Integer[predicates.size()];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.comparingInt(i -> estimates[i]));
+
+        Bitmap candidates = null;
+        for (int i : order) {
+            SearchPredicate predicate = predicates.get(i);
+            long start = System.nanoTime();
+            String access;
+            if (candidates == null) {
+                candidates = predicate.evaluate();
+                access = "index";
+            } else {
+                predicate.retain(candidates);
+                access = "filter";
+            }
+            stages.add(new QueryStageRecord(predicate.describe(), access, estimates[i], candidates.cardinality(),
+                    (System.nanoTime() - start) / 1_000));
+        }
+        return candidates;
+    }
+
+    static QueryPlanRecord explain(CatalogSnapshot catalog, SearchQuery query) {
+        List<QueryStageRecord> stages = new ArrayList<>();
+        long start = System.nanoTime();
+        Bitmap matches = execute(catalog, query, stages);
+        return new QueryPlanRecord(catalog.getVersion(), catalog.size(), matches.cardinality(),
+                (System.nanoTime() - start) / 1_000, stages);
+    }
+
+    private static List<SearchPredicate> predicates(CatalogSnapshot catalog, SearchQuery query) {
+        List<SearchPredicate> predicates = new ArrayList<>();
+        if (query.name() != null) {
+            predicates.add(catalog.namePredicate(query.name()));
+        }
+        for (SearchQuery.SpecificationFilter filter : query.specifications()) {
+            predicates.add(catalog.specificationPredicate(filter.key(), filter.value()));
+        }
+        predicates.add(catalog.rangePredicate(SortKey.PRICE, query.priceMin(), query.priceMax()));
+        predicates.add(catalog.rangePredicate(SortKey.RATING, query.ratingMin(), query.ratingMax()));
+        return predicates;
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.productlist.storage;
+
+import org.example.productlist.exception.InvalidCursorException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * Position after the last rating of a page: order, direction, the rating's score and its position in the product's
+ * segment. Positions never move because segments are append-only, so the cursor survives new ratings.
+ */
+public record RatingCursor(RatingSort sort, boolean descending, double score, int position) {
+
+    public String encode() {
+        var bytes = new ByteArrayOutputStream(16);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(sort.ordinal());
+            out.writeBoolean(descending);
+            out.writeDouble(score);
+            out.writeInt(position);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    public static RatingCursor decode(String token) {
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            return new RatingCursor(RatingSort.values()[in.readUnsignedByte()], in.readBoolean(), in.readDouble(),
+                    in.readInt());
+        } catch (IOException | IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidCursorException("Invalid rating cursor: " + token);
+        }
+    }
+}
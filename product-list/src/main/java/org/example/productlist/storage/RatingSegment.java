@@ -0,0 +1,235 @@
+package org.example.productlist.storage;
+
+import org.example.productlist.model.entity.Rating;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Ratings of one product, stored apart from the product. A segment is an immutable view of the first size ratings of
+ * a storage it shares with the segments appended to it. Ratings loaded with the catalog are kept in the list they came
+ * in, so a mapped list stays in the file, and later ratings go to a growable array. Appending fills the next free
+ * slots of that array and returns a longer segment, so snapshots holding a shorter one keep their ratings and readers
+ * never lock. Appends come from the catalog writer, one change at a time.
+ */
+public final class RatingSegment {
+
+    private static final Rating[] NONE = new Rating[0];
+    private static final ScoreOrder NO_ORDER = new ScoreOrder(0, new double[0], new int[0]);
+
+    // Scores by position and positions ordered by score, for the first size ratings of a storage
+    private record ScoreOrder(int size, double[] scores, int[] positions) {
+    }
+
+    // Shared by a segment and the segments appended to it
+    private static final class Storage {
+        private final List<Rating> loaded;
+        // Slots of the appended array taken so far, only used by the writer
+        private int used;
+        // Longest score order computed so far, positions never move so it stays valid for longer segments
+        private volatile ScoreOrder scoreOrder = NO_ORDER;
+
+        private Storage(List<Rating> loaded) {
+            this.loaded = loaded;
+        }
+    }
+
+    private final Storage storage;
+    private final Rating[] appended;
+    private final int size;
+
+    public RatingSegment(List<Rating> loaded) {
+        this(new Storage(loaded == null ? List.of() : loaded), NONE, loaded == null ? 0 : loaded.size());
+    }
+
+    private RatingSegment(Storage storage, Rating[] appended, int size) {
+        this.storage = storage;
+        this.appended = appended;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Rating get(int position) {
+        Objects.checkIndex(position, size);
+        int loadedSize = storage.loaded.size();
+        return position < loadedSize ? storage.loaded.get(position) : appended[position - loadedSize];
+    }
+
+    /**
+     * The ratings of this segment, decoded as they are accessed.
+     */
+    public List<Rating> asList() {
+        return new AbstractList<>() {
+            @Override
+            public Rating get(int index) {
+                return RatingSegment.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    public RatingSegment append(Rating rating) {
+        return append(List.of(rating));
+    }
+
+    /**
+     * Segment with the ratings after the ones of this segment, which is left as it is. Costs the number of ratings
+     * added: they go to the next free slots of the shared array. Only when a longer segment already took those slots,
+     * as with a change that was never published, the appended ratings are copied to a storage of their own.
+     */
+    public RatingSegment append(List<Rating> ratings) {
+        if (ratings.isEmpty()) {
+            return this;
+        }
+        int count = size - storage.loaded.size();
+        Storage target = storage;
+        Rating[] array = appended;
+        if (count != storage.used) {
+            target = new Storage(storage.loaded);
+            array = Arrays.copyOf(appended, count);
+        }
+        if (count + ratings.size() > array.length) {
+            array = Arrays.copyOf(array, Math.max(count + ratings.size(), Math.max(4, count * 2)));
+        }
+        for (int i = 0; i < ratings.size(); i++) {
+            array[count + i] = ratings.get(i);
+        }
+        target.used = count + ratings.size();
+        return new RatingSegment(target, array, size + ratings.size());
+    }
+
+    /**
+     * Position of the rating with the given id, or -1.
+     */
+    public int indexOf(String ratingId) {
+        for (int position = size - 1; position >= 0; position--) {
+            if (Objects.equals(get(position).getRatingId(), ratingId)) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Copy of the segment with the rating at the position replaced. Unlike an append this copies every rating.
+     */
+    public RatingSegment replace(int position, Rating rating) {
+        List<Rating> ratings = new ArrayList<>(asList());
+        ratings.set(position, rating);
+        return new RatingSegment(ratings);
+    }
+
+    /**
+     * Copy of the segment without the rating at the position. Unlike an append this copies every rating, and later
+     * ratings move one position down.
+     */
+    public RatingSegment remove(int position) {
+        List<Rating> ratings = new ArrayList<>(asList());
+        ratings.remove(position);
+        return new RatingSegment(ratings);
+    }
+
+    /**
+     * Positions of up to limit ratings following the cursor, or from the start of the order when there is none.
+     */
+    public int[] positions(RatingSort sort, boolean descending, RatingCursor after, int limit) {
+        var scored = sort == RatingSort.SCORE ? scoreOrder() : null;
+        int[] order = scored == null ? null : scored.positions();
+        int count = size;
+        int start;
+        if (sort == RatingSort.RECENT) {
+            start = after == null ? (descending ? count - 1 : 0) : after.position() + (descending ? -1 : 1);
+        } else if (after == null) {
+            start = descending ? count - 1 : 0;
+        } else {
+            double[] scores = scored.scores();
+            // First index of the order at or past the cursor, the cursor itself is excluded in both directions
+            int low = 0;
+            int high = order.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                int position = order[middle];
+                int compare = Double.compare(scores[position], after.score());
+                if (compare == 0) {
+                    compare = Integer.compare(position, after.position());
+                }
+                if (compare < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            boolean found = low < order.length && order[low] == after.position();
+            start = descending ? low - 1 : (found ? low + 1 : low);
+        }
+        int step = descending ? -1 : 1;
+        // Sized by the ratings left in the order, so a huge limit allocates no more than the segment holds
+        int available = descending ? start + 1 : count - start;
+        var positions = new int[Math.max(0, Math.min(limit, available))];
+        int taken = 0;
+        for (int index = start; taken < positions.length && index >= 0 && index < count; index += step) {
+            positions[taken++] = order == null ? index : order[index];
+        }
+        return Arrays.copyOf(positions, taken);
+    }
+
+    public RatingCursor cursorAt(RatingSort sort, boolean descending, int position) {
+        return new RatingCursor(sort, descending, score(get(position)), position);
+    }
+
+    private ScoreOrder scoreOrder() {
+        var cached = storage.scoreOrder;
+        if (cached.size() == size) {
+            return cached;
+        }
+        if (cached.size() > size) {
+            // A snapshot older than the order: keep the positions it has
+            int[] positions = IntStream.of(cached.positions()).filter(position -> position < size).toArray();
+            return new ScoreOrder(size, cached.scores(), positions);
+        }
+        var order = extend(cached);
+        // Readers racing here compute the same order, whichever is stored last is as good
+        if (storage.scoreOrder.size() < size) {
+            storage.scoreOrder = order;
+        }
+        return order;
+    }
+
+    // Sorts only the ratings the order does not have yet and merges them in
+    private ScoreOrder extend(ScoreOrder order) {
+        int from = order.size();
+        double[] scores = Arrays.copyOf(order.scores(), size);
+        for (int position = from; position < size; position++) {
+            scores[position] = score(get(position));
+        }
+        Comparator<Integer> byScore = Comparator.<Integer>comparingDouble(position -> scores[position])
+                .thenComparingInt(position -> position);
+        int[] added = IntStream.range(from, size).boxed().sorted(byScore).mapToInt(Integer::intValue).toArray();
+        int[] previous = order.positions();
+        int[] positions = new int[size];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < size; k++) {
+            positions[k] = j == added.length || (i < previous.length && byScore.compare(previous[i], added[j]) < 0)
+                    ? previous[i++] : added[j++];
+        }
+        return new ScoreOrder(size, scores, positions);
+    }
+
+    // Ratings without a score sort below every scored one
+    private static double score(Rating rating) {
+        return rating.getScore() == null ? Double.NEGATIVE_INFINITY : rating.getScore();
+    }
+}
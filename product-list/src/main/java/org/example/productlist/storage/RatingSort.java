@@ -0,0 +1,13 @@
+package org.example.productlist.storage;
+
+/**
+ * Orders of a product's ratings. Ratings carry no timestamp, so recency is the order they were appended in.
+ */
+public enum RatingSort {
+    RECENT,
+    SCORE;
+
+    public static RatingSort from(String sort) {
+        return "score".equalsIgnoreCase(sort) ? SCORE : RECENT;
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.productlist.storage;
+
+/**
+ * One condition of a search, bound to a snapshot. The planner evaluates the most selective predicate through its
+ * index and narrows the resulting candidates with the others.
+ */
+interface SearchPredicate {
+
+    String describe();
+
+    /**
+     * Upper bound of the number of matching products, taken from index statistics without evaluating the predicate.
+     */
+    int estimate();
+
+    Bitmap evaluate();
+
+    /**
+     * Clears the candidates that do not match. Implementations only look at candidates still set.
+     */
+    void retain(Bitmap candidates);
+}
@@ -0,0 +1,42 @@
+package org.example.productlist.storage;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Normalized search parameters. Open bounds are stored as infinities and a blank name as null, so two requests that
+ * select the same products produce equal queries.
+ */
+public record SearchQuery(String name, List<SpecificationFilter> specifications, double ratingMin, double ratingMax,
+                          double priceMin, double priceMax) {
+
+    public record SpecificationFilter(String key, String value) {
+    }
+
+    public static SearchQuery of(String productName, String specifications, Double ratingMin, Double ratingMax,
+            Double priceMin, Double priceMax) {
+        String name = productName == null || productName.trim().isEmpty() ? null : productName;
+        List<SpecificationFilter> filters = specifications == null || specifications.trim().isEmpty()
+                ? List.of()
+                : Arrays.stream(specifications.split(";"))
+                        .map(s -> s.split(":"))
+                        .filter(spec -> spec.length == 2)
+                        .map(spec -> new SpecificationFilter(spec[0], spec[1]))
+                        .toList();
+        return new SearchQuery(name, filters,
+                ratingMin == null ? Double.NEGATIVE_INFINITY : ratingMin,
+                // A maximum of 5 is the top of the scale and leaves the range open
+                ratingMax == null || ratingMax == 5 ? Double.POSITIVE_INFINITY : ratingMax,
+                priceMin == null ? Double.NEGATIVE_INFINITY : priceMin,
+                // A maximum of 0 means no upper bound
+                priceMax == null || priceMax == 0 ? Double.POSITIVE_INFINITY : priceMax);
+    }
+
+    /**
+     * Whether ratings can decide if a product matches. Averages lie between 0 and 5, so bounds outside of that range
+     * select every product.
+     */
+    public boolean filtersRating() {
+        return ratingMin > 0 || ratingMax < 5;
+    }
+}
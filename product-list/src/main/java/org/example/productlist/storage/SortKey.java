@@ -0,0 +1,62 @@
+package org.example.productlist.storage;
+
+import org.example.productlist.model.entity.Product;
+
+import java.util.Comparator;
+import java.util.function.Function;
+
+import static java.util.Comparator.naturalOrder;
+import static java.util.Comparator.nullsLast;
+
+public enum SortKey {
+    NAME(Product::getName),
+    PRICE(Product::getPrice),
+    RATING(Product::getAverageRating),
+    DAT_CREATION(Product::getDatCreation);
+
+    private final Function<Product, ? extends Comparable<?>> attribute;
+    private final Comparator<Product> comparator;
+
+    SortKey(Function<Product, ? extends Comparable<?>> attribute) {
+        this.attribute = attribute;
+        // Ties are broken by productId so every index has a total, repeatable order
+        this.comparator = ((Comparator<Product>) (a, b) -> compareValues(attribute.apply(a), attribute.apply(b)))
+                .thenComparing(Product::getProductId, nullsLast(naturalOrder()));
+    }
+
+    public Comparator<Product> comparator() {
+        return comparator;
+    }
+
+    Comparable<?> value(Product product) {
+        return attribute.apply(product);
+    }
+
+    /**
+     * Compares a position in this order, given by a sort value and a productId, with a product.
+     */
+    int compare(Comparable<?> value, String productId, Product product) {
+        int result = compareValues(value, attribute.apply(product));
+        return result != 0 ? result : compareValues(productId, product.getProductId());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareValues(Comparable a, Comparable b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : 1) : -1;
+        }
+        return a.compareTo(b);
+    }
+
+    public static SortKey from(String sort) {
+        if (sort == null) {
+            return DAT_CREATION;
+        }
+        return switch (sort) {
+            case "name" -> NAME;
+            case "price" -> PRICE;
+            case "rating" -> RATING;
+            default -> DAT_CREATION;
+        };
+    }
+}
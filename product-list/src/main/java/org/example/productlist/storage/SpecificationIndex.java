@@ -0,0 +1,205 @@
+package org.example.productlist.storage;
+
+import org.example.productlist.model.entity.Product;
+import org.example.productlist.model.entity.Specifications;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Facet index over product specifications: case-folded key, then the distinct lower-cased values of that key, then
+ * the sorted ordinals of the products having that value. A filter scans only the value dictionary of its key, which
+ * is small next to the catalog, and unions the postings of the values that contain the requested text.
+ */
+final class SpecificationIndex {
+
+    private static final int[] NO_POSTINGS = new int[0];
+
+    private final Map<String, Facet> facets = new HashMap<>();
+
+    SpecificationIndex(List<Product> products) {
+        Map<String, Map<String, PostingsBuilder>> builders = new HashMap<>();
+        for (int ordinal = 0; ordinal < products.size(); ordinal++) {
+            int current = ordinal;
+            forEachSpecification(products.get(ordinal), (key, value) -> builders
+                    .computeIfAbsent(key, k -> new LinkedHashMap<>())
+                    .computeIfAbsent(value, v -> new PostingsBuilder())
+                    .add(current));
+        }
+        builders.forEach((key, values) -> facets.put(key, new Facet(values)));
+    }
+
+    /**
+     * Copy of {@code previous} where the products at the sorted {@code changed} ordinals were replaced, added or
+     * removed (null). Only the facets and values the old or new specifications of those products mention are
+     * rewritten, every other facet is shared with the previous index.
+     */
+    SpecificationIndex(SpecificationIndex previous, List<Product> previousProducts, List<Product> products,
+            int[] changed) {
+        facets.putAll(previous.facets);
+        Map<String, Set<String>> touched = new HashMap<>();
+        Map<String, Map<String, PostingsBuilder>> added = new HashMap<>();
+        for (int ordinal : changed) {
+            int current = ordinal;
+            if (ordinal < previousProducts.size()) {
+                forEachSpecification(previousProducts.get(ordinal),
+                        (key, value) -> touched.computeIfAbsent(key, k -> new HashSet<>()).add(value));
+            }
+            forEachSpecification(products.get(ordinal), (key, value) -> {
+                touched.computeIfAbsent(key, k -> new HashSet<>()).add(value);
+                added.computeIfAbsent(key, k -> new HashMap<>())
+                        .computeIfAbsent(value, v -> new PostingsBuilder())
+                        .add(current);
+            });
+        }
+        touched.forEach((key, values) -> {
+            Map<String, int[]> lists = new LinkedHashMap<>();
+            Facet facet = previous.facets.get(key);
+            for (int i = 0; facet != null && i < facet.values.length; i++) {
+                lists.put(facet.values[i], facet.postings[i]);
+            }
+            Map<String, PostingsBuilder> additions = added.getOrDefault(key, Map.of());
+            for (String value : values) {
+                PostingsBuilder builder = additions.get(value);
+                int[] list = PostingsBuilder.replace(lists.getOrDefault(value, NO_POSTINGS), changed,
+                        builder == null ? NO_POSTINGS : builder.toArray());
+                if (list.length == 0) {
+                    lists.remove(value);
+                } else {
+                    lists.put(value, list);
+                }
+            }
+            if (lists.isEmpty()) {
+                facets.remove(key);
+            } else {
+                facets.put(key, new Facet(lists.keySet().toArray(String[]::new),
+                        lists.values().toArray(int[][]::new)));
+            }
+        });
+    }
+
+    // Calls the action with the folded key and lower-cased value of every complete specification of the product
+    private static void forEachSpecification(Product product, BiConsumer<String, String> action) {
+        List<Specifications> specifications = product == null ? null : product.getSpecificationsList();
+        if (specifications == null) {
+            return;
+        }
+        for (Specifications specification : specifications) {
+            if (specification.getKey() != null && specification.getValue() != null) {
+                action.accept(foldCase(specification.getKey()), specification.getValue().toLowerCase());
+            }
+        }
+    }
+
+    /**
+     * Products with a specification whose key equals {@code key} ignoring case and whose value contains
+     * {@code value} ignoring case.
+     */
+    Bitmap match(String key, String value, int size) {
+        return predicate(key, value, size).evaluate();
+    }
+
+    SearchPredicate predicate(String key, String value, int size) {
+        return new SpecificationPredicate(key, value, size);
+    }
+
+    /**
+     * Same folding as {@link String#equalsIgnoreCase}, applied char by char so that equal keys map to one entry.
+     */
+    private static String foldCase(String value) {
+        char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+    private static final class Facet {
+        private final String[] values;
+        private final int[][] postings;
+
+        private Facet(Map<String, PostingsBuilder> builders) {
+            values = builders.keySet().toArray(String[]::new);
+            postings = builders.values().stream().map(PostingsBuilder::toArray).toArray(int[][]::new);
+        }
+
+        private Facet(String[] values, int[][] postings) {
+            this.values = values;
+            this.postings = postings;
+        }
+    }
+
+    /**
+     * Resolves the matching values once, then answers from their postings. Checking a single candidate is a binary
+     * search per matching value, so narrowing never touches the product itself.
+     */
+    private final class SpecificationPredicate implements SearchPredicate {
+        private final String key;
+        private final String value;
+        private final int size;
+        private final List<int[]> postings = new ArrayList<>();
+        private final int estimate;
+
+        private SpecificationPredicate(String key, String value, int size) {
+            this.key = key;
+            this.value = value;
+            this.size = size;
+            Facet facet = facets.get(foldCase(key));
+            if (facet != null) {
+                String query = value.toLowerCase();
+                for (int i = 0; i < facet.values.length; i++) {
+                    if (facet.values[i].contains(query)) {
+                        postings.add(facet.postings[i]);
+                    }
+                }
+            }
+            this.estimate = (int) Math.min(postings.stream().mapToLong(list -> list.length).sum(), size);
+        }
+
+        @Override
+        public String describe() {
+            return "specification " + key + " contains '" + value + "'";
+        }
+
+        @Override
+        public int estimate() {
+            return estimate;
+        }
+
+        @Override
+        public Bitmap evaluate() {
+            Bitmap result = new Bitmap(size);
+            for (int[] list : postings) {
+                for (int ordinal : list) {
+                    result.set(ordinal);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public void retain(Bitmap candidates) {
+            for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+                if (!contains(ordinal)) {
+                    candidates.clear(ordinal);
+                }
+            }
+        }
+
+        private boolean contains(int ordinal) {
+            for (int[] list : postings) {
+                if (Arrays.binarySearch(list, ordinal) >= 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
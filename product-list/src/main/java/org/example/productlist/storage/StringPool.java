@@ -0,0 +1,19 @@
+package org.example.productlist.storage;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deduplicates strings that repeat across products, like specification keys and values, while a catalog is loaded.
+ */
+final class StringPool {
+
+    private final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<>();
+
+    String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String existing = strings.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+}
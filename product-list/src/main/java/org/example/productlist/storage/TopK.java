@@ -0,0 +1,73 @@
+package org.example.productlist.storage;
+
+import java.util.Arrays;
+
+/**
+ * Selects the k best ranked ordinals of a bitmap with a bounded max-heap, in O(m log k) for m matches, instead of
+ * sorting every match.
+ */
+final class TopK {
+
+    private TopK() {
+    }
+
+    /**
+     * Returns the sort positions of the {@code k} matches that come first in the given direction, in order.
+     */
+    static int[] positions(Bitmap matches, int[] rank, boolean descending, int k) {
+        // Keys are ranks, negated for descending order, so the heap always keeps the k smallest keys
+        int[] heap = new int[k];
+        int size = 0;
+        for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+            int key = descending ? -rank[ordinal] : rank[ordinal];
+            if (size < k) {
+                heap[size] = key;
+                siftUp(heap, size++);
+            } else if (key < heap[0]) {
+                heap[0] = key;
+                siftDown(heap, size);
+            }
+        }
+        int[] positions = Arrays.copyOf(heap, size);
+        Arrays.sort(positions);
+        if (descending) {
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = -positions[i];
+            }
+        }
+        return positions;
+    }
+
+    private static void siftUp(int[] heap, int index) {
+        int key = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] >= key) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = key;
+    }
+
+    private static void siftDown(int[] heap, int size) {
+        int key = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[child] <= key) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = key;
+    }
+}
@@ -0,0 +1,237 @@
+package org.example.productlist.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of catalog changes, written to one segment file at a time. A record is the payload length, the
+ * CRC32 of the payload and the payload itself.
+ * <p>
+ * Appends are queued and a single thread writes everything queued since its last write with one call and one
+ * fsync, then completes the whole batch, so a burst of changes shares the cost of an fsync (group commit). After a
+ * failed write nobody can tell what reached the disk, so that batch and every append queued after it fail until a
+ * {@link #reset} cuts the segment back to the last record known to be on disk.
+ */
+final class WriteAheadLog implements AutoCloseable {
+
+    static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int MAX_BATCH = 4096;
+
+    // An append, a switch to another segment when the payload is null, or a reset when the segment is null too
+    private record Request(byte[] payload, Path segment, CompletableFuture<Void> done) {
+    }
+
+    private final Request close = new Request(null, null, new CompletableFuture<>());
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    // Only used by the writer thread once it has started
+    private FileChannel channel;
+    private Path segment;
+    // Length of the segment up to the last record forced to disk
+    private long durableSize;
+    private IOException failure;
+
+    WriteAheadLog(Path segment) throws IOException {
+        this.channel = open(segment);
+        this.segment = segment;
+        this.durableSize = channel.size();
+        Thread.ofPlatform().name("catalog-wal").daemon().start(this::run);
+    }
+
+    /**
+     * Queues the payload and returns a future completed once it is on disk.
+     */
+    CompletableFuture<Void> append(byte[] payload) {
+        return submit(new Request(payload, null, new CompletableFuture<>()));
+    }
+
+    /**
+     * Continues the log in a new segment. The future completes once every record appended before is on disk.
+     */
+    CompletableFuture<Void> rotate(Path segment) {
+        return submit(new Request(null, segment, new CompletableFuture<>()));
+    }
+
+    /**
+     * Takes appends again after a failed write: appends queued before this fail like the write did, and the ones
+     * queued after are written once the segment is cut back to its last record on disk. When that fails too, the
+     * returned future and the later appends fail, until the next reset.
+     */
+    CompletableFuture<Void> reset() {
+        return submit(new Request(null, null, new CompletableFuture<>()));
+    }
+
+    /**
+     * Hands every intact record of the segment to the consumer, in order, and cuts off a torn or corrupt tail left
+     * by a crash in the middle of a write. Returns the number of records.
+     */
+    static int replay(Path segment, Consumer<byte[]> consumer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        CRC32 crc = new CRC32();
+        int records = 0;
+        while (buffer.remaining() >= RECORD_HEADER_BYTES) {
+            int length = buffer.getInt(buffer.position());
+            int checksum = buffer.getInt(buffer.position() + Integer.BYTES);
+            if (length < 0 || length > buffer.remaining() - RECORD_HEADER_BYTES) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(buffer.position() + RECORD_HEADER_BYTES, payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            consumer.accept(payload);
+            buffer.position(buffer.position() + RECORD_HEADER_BYTES + length);
+            records++;
+        }
+        if (buffer.hasRemaining()) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                channel.truncate(buffer.position());
+                channel.force(true);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Writes what is already queued and closes the segment.
+     */
+    @Override
+    public void close() {
+        queue.add(close);
+        close.done().join();
+    }
+
+    private CompletableFuture<Void> submit(Request request) {
+        queue.add(request);
+        return request.done();
+    }
+
+    private void run() {
+        List<Request> batch = new ArrayList<>();
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+                int from = 0;
+                for (int i = 0; i < batch.size(); i++) {
+                    Request request = batch.get(i);
+                    if (request.payload() != null) {
+                        continue;
+                    }
+                    write(batch.subList(from, i));
+                    from = i + 1;
+                    if (request == close) {
+                        closeChannel();
+                        close.done().complete(null);
+                        return;
+                    }
+                    if (request.segment() == null) {
+                        reset(request);
+                    } else {
+                        switchTo(request);
+                    }
+                }
+                write(batch.subList(from, batch.size()));
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(List<Request> requests) {
+        if (requests.isEmpty()) {
+            return;
+        }
+        if (failure == null) {
+            int size = 0;
+            for (Request request : requests) {
+                size += RECORD_HEADER_BYTES + request.payload().length;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            CRC32 crc = new CRC32();
+            for (Request request : requests) {
+                crc.reset();
+                crc.update(request.payload());
+                buffer.putInt(request.payload().length).putInt((int) crc.getValue()).put(request.payload());
+            }
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+                durableSize += size;
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        requests.forEach(this::complete);
+    }
+
+    private void switchTo(Request request) {
+        if (failure == null) {
+            try {
+                channel.close();
+                channel = open(request.segment());
+                segment = request.segment();
+                durableSize = channel.size();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        complete(request);
+    }
+
+    private void reset(Request request) {
+        if (failure != null) {
+            try {
+                if (channel.isOpen()) {
+                    channel.close();
+                }
+                channel = open(segment);
+                channel.truncate(durableSize);
+                channel.force(true);
+                failure = null;
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        complete(request);
+    }
+
+    private void complete(Request request) {
+        if (failure == null) {
+            request.done().complete(null);
+        } else {
+            request.done().completeExceptionally(new UncheckedIOException(failure));
+        }
+    }
+
+    private void closeChannel() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    private static FileChannel open(Path segment) throws IOException {
+        return FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+}
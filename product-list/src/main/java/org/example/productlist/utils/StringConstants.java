@@ -6,9 +6,9 @@ public class StringConstants {
     private StringConstants() {
     }
 
-    public static final String LIST_OF_PRODUCTS = "[{\"productId\":\"aaaa0000-bbbb-4ccc-dddd-000000000013\",\"name\":\"Dynamic Podcast Microphone (USB‑C/XLR)\",\"price\":179,\"datCreation\":\"2024-07-11T08:45:00Z\",\"datUpdate\":null,\"description\":\"Dynamic mic with dual USB‑C and XLR connectivity for studio and home.\",\"imageUrl\":\"https://example.com/images/dynamic-podcast-mic.jpg\",\"specificationsList\":[{\"specificationId\":\"2aaa0000-bbbb-4ccc-dddd-000000000001\",\"productId\":\"aaaa0000-bbbb-4ccc-dddd-000000000013\",\"key\":\"Pattern\",\"value\":\"Cardioid (Dynamic)\"},{\"specificationId\":\"2aaa0000-bbbb-4ccc-dddd-000000000002\",\"productId\":\"aaaa0000-bbbb-4ccc-dddd-000000000013\",\"key\":\"Connector\",\"value\":\"USB‑C / XLR\"},{\"specificationId\":\"2aaa0000-bbbb-4ccc-dddd-000000000003\",\"productId\":\"aaaa0000-bbbb-4ccc-dddd-000000000013\",\"key\":\"Included\",\"value\":\"Shock mount, windscreen\"}],\"ratingList\":[{\"ratingId\":\"3aaa0000-bbbb-4ccc-dddd-000000000013\",\"customerId\":\"bb112233-cc44-4dd5-ee66-77889900aabb\",\"productId\":\"aaaa0000-bbbb-4ccc-dddd-000000000013\",\"score\":4.5,\"message\":\"Great rejection and versatility.\"}]}]";
+    public static final String LIST_OF_PRODUCTS = "[{\"productId\":\"aaaa0000-bbbb-4ccc-dddd-000000000013\",\"name\":\"Dynamic Podcast Microphone (USB‑C/XLR)\",\"price\":179,\"datCreation\":\"2024-07-11T08:45:00Z\",\"datUpdate\":null,\"description\":\"Dynamic mic with dual USB‑C and XLR connectivity for studio and home.\",\"imageUrl\":\"https://example.com/images/dynamic-podcast-mic.jpg\",\"specificationsList\":[{\"specificationId\":\"2aaa0000-bbbb-4ccc-dddd-000000000001\",\"productId\":\"aaaa0000-bbbb-4ccc-dddd-000000000013\",\"key\":\"Pattern\",\"value\":\"Cardioid (Dynamic)\"},{\"specificationId\":\"2aaa0000-bbbb-4ccc-dddd-000000000002\",\"productId\":\"aaaa0000-bbbb-4ccc-dddd-000000000013\",\"key\":\"Connector\",\"value\":\"USB‑C / XLR\"},{\"specificationId\":\"2aaa0000-bbbb-4ccc-dddd-000000000003\",\"productId\":\"aaaa0000-bbbb-4ccc-dddd-000000000013\",\"key\":\"Included\",\"value\":\"Shock mount, windscreen\"}],\"averageRating\":4.5}]";
     public static final String ERROR_RESPONSE = "{\"message\":\"An unexpected error occurred\",\"status\":\"500\",\"timestamp\":\"2024-07-15T10:20:30\"}";
-    public static final String PRODUCT_RESPONSE = "{\"productId\":\"aaaa0000-bbbb-4ccc-dddd-000000000013\",\"name\":\"Dynamic Podcast Microphone (USB‑C/XLR)\",\"price\":179,\"datCreation\":\"2024-07-11T08:45:00Z\",\"datUpdate\":null,\"description\":\"Dynamic mic with dual USB‑C and XLR connectivity for studio and home.\",\"imageUrl\":\"https://example.com/images/dynamic-podcast-mic.jpg\",\"specificationsList\":[{\"specificationId\":\"2aaa0000-bbbb-4ccc-dddd-000000000001\",\"productId\":\"aaaa0000-bbbb-4ccc-dddd-000000000013\",\"key\":\"Pattern\",\"value\":\"Cardioid (Dynamic)\"},{\"specificationId\":\"2aaa0000-bbbb-4ccc-dddd-000000000002\",\"productId\":\"aaaa0000-bbbb-4ccc-dddd-000000000013\",\"key\":\"Connector\",\"value\":\"USB‑C / XLR\"},{\"specificationId\":\"2aaa0000-bbbb-4ccc-dddd-000000000003\",\"productId\":\"aaaa0000-bbbb-4ccc-dddd-000000000013\",\"key\":\"Included\",\"value\":\"Shock mount, windscreen\"}],\"ratingList\":[{\"ratingId\":\"3aaa0000-bbbb-4ccc-dddd-000000000013\",\"customerId\":\"bb112233-cc44-4dd5-ee66-77889900aabb\",\"productId\":\"aaaa0000-bbbb-4ccc-dddd-000000000013\",\"score\":4.5,\"message\":\"Great rejection and versatility.\"}]}";
+    public static final String PRODUCT_RESPONSE = "{\"productId\":\"aaaa0000-bbbb-4ccc-dddd-000000000013\",\"name\":\"Dynamic Podcast Microphone (USB‑C/XLR)\",\"price\":179,\"datCreation\":\"2024-07-11T08:45:00Z\",\"datUpdate\":null,\"description\":\"Dynamic mic with dual USB‑C and XLR connectivity for studio and home.\",\"imageUrl\":\"https://example.com/images/dynamic-podcast-mic.jpg\",\"specificationsList\":[{\"specificationId\":\"2aaa0000-bbbb-4ccc-dddd-000000000001\",\"productId\":\"aaaa0000-bbbb-4ccc-dddd-000000000013\",\"key\":\"Pattern\",\"value\":\"Cardioid (Dynamic)\"},{\"specificationId\":\"2aaa0000-bbbb-4ccc-dddd-000000000002\",\"productId\":\"aaaa0000-bbbb-4ccc-dddd-000000000013\",\"key\":\"Connector\",\"value\":\"USB‑C / XLR\"},{\"specificationId\":\"2aaa0000-bbbb-4ccc-dddd-000000000003\",\"productId\":\"aaaa0000-bbbb-4ccc-dddd-000000000013\",\"key\":\"Included\",\"value\":\"Shock mount, windscreen\"}],\"averageRating\":4.5}";
     public static final String NOT_FOUND_PRODUCT = "{\"message\":\"No products found matching the criteria\",\"statusCode\":\"404\",\"timestamp\":\"2025-08-31T15:53:41.027981959\"}";
     public static final String PRODUCT_ID_NOT_NULL = "{\"message\":\"Product ID cannot be null\",\"statusCode\":\"400\",\"timestamp\":\"2025-08-31T15:53:41.027981959\"}";
     public static final String PRODUCT_NAME_NOT_NULL = "{\"message\":\"Product Name cannot be null\",\"statusCode\":\"400\",\"timestamp\":\"2025-08-31T15:53:41.027981959\"}";
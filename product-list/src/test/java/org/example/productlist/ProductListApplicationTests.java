@@ -3,7 +3,7 @@ package org.example.productlist;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "product.list.file=src/main/resources/jsons/products.json")
 class ProductListApplicationTests {
 
     @Test
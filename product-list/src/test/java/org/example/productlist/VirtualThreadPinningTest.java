@@ -0,0 +1,37 @@
+package org.example.productlist;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VirtualThreadPinningTest {
+
+    private static final Pattern COMMENTS = Pattern.compile("//[^\\n]*|/\\*.*?\\*/", Pattern.DOTALL);
+    private static final Pattern SYNCHRONIZED = Pattern.compile("\\bsynchronized\\b");
+
+    @Test
+    void testMainSources_DoNotUseSynchronized() throws IOException {
+        // A virtual thread blocked inside synchronized pins its carrier, locks must be java.util.concurrent ones
+        try (Stream<Path> sources = Files.walk(Path.of("src/main/java"))) {
+            List<Path> offenders = sources
+                    .filter(path -> path.toString().endsWith(".java"))
+                    .filter(path -> {
+                        try {
+                            String code = COMMENTS.matcher(Files.readString(path)).replaceAll("");
+                            return SYNCHRONIZED.matcher(code).find();
+                        } catch (IOException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    })
+                    .toList();
+            assertEquals(List.of(), offenders);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.productlist.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.productlist.model.entity.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogReloaderTest {
+
+    private static final Duration DEBOUNCE = Duration.ofMillis(200);
+
+    @TempDir
+    Path tempDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CatalogReloader reloader;
+
+    @AfterEach
+    void tearDown() {
+        if (reloader != null) {
+            reloader.stop();
+        }
+    }
+
+    @Test
+    void testReload_BurstOfWritesPublishesOneVersion() throws Exception {
+        LocalStorage storage = start(writeProducts("1"));
+
+        writeProducts("1", "2");
+        writeProducts("1", "2", "3");
+        writeProducts("2", "3");
+
+        assertTrue(await(() -> storage.getCatalogVersion() > 1));
+        Thread.sleep(DEBOUNCE.multipliedBy(3).toMillis());
+        assertEquals(2, storage.getCatalogVersion());
+        assertEquals(List.of("2", "3"), ids(storage));
+        assertEquals(1.0, reloads("success"));
+    }
+
+    @Test
+    void testReload_IgnoresOtherFilesInTheDirectory() throws Exception {
+        LocalStorage storage = start(writeProducts("1"));
+
+        Files.writeString(tempDir.resolve("other.json"), "[]");
+        Thread.sleep(DEBOUNCE.multipliedBy(5).toMillis());
+
+        assertEquals(1, storage.getCatalogVersion());
+        assertEquals(0.0, reloads("success") + reloads("failure"));
+    }
+
+    @Test
+    void testReload_KeepsCatalogWhenFileIsInvalid() throws Exception {
+        LocalStorage storage = start(writeProducts("1"));
+
+        Files.writeString(tempDir.resolve("products.json"), "[{\"productId\":");
+
+        assertTrue(await(() -> reloads("failure") == 1.0));
+        assertEquals(1, storage.getCatalogVersion());
+        assertEquals(List.of("1"), ids(storage));
+
+        writeProducts("4");
+
+        assertTrue(await(() -> storage.getCatalogVersion() == 2));
+        assertEquals(List.of("4"), ids(storage));
+    }
+
+    private LocalStorage start(Path productFile) {
+        LocalStorage storage = new LocalStorage();
+        ReflectionTestUtils.setField(storage, "productFilePath", productFile.toString());
+        ReflectionTestUtils.setField(storage, "parallelLoad", false);
+        ReflectionTestUtils.setField(storage, "persistenceDir", "");
+        storage.initialize();
+        reloader = new CatalogReloader(storage, meterRegistry, true, DEBOUNCE);
+        reloader.start();
+        return storage;
+    }
+
+    private Path writeProducts(String... productIds) throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (String productId : productIds) {
+            json.append(json.length() > 1 ? "," : "")
+                    .append("{\"productId\":\"").append(productId).append("\",\"name\":\"Product ")
+                    .append(productId).append("\",\"price\":10.0}");
+        }
+        return Files.writeString(tempDir.resolve("products.json"), json.append("]"));
+    }
+
+    private double reloads(String result) {
+        return meterRegistry.counter("catalog.reloads", "result", result).count();
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(20);
+        }
+        return true;
+    }
+
+    private static List<String> ids(LocalStorage storage) {
+        return storage.getProducts().stream().map(Product::getProductId).toList();
+    }
+}
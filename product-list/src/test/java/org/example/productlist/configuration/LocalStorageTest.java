@@ -0,0 +1,124 @@
+package org.example.productlist.configuration;
+
+import org.example.productlist.model.entity.Product;
+import org.example.productlist.model.entity.Rating;
+import org.example.productlist.model.records.CatalogDeltaRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LocalStorageTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRecover_StartsFromReloadedCatalog() throws Exception {
+        Path productFile = writeProducts("1", "2");
+        try (LocalStorage storage = open(productFile)) {
+            storage.applyDelta(upsert("3"));
+            writeProducts("4");
+            storage.reload();
+            storage.applyDelta(upsert("5"));
+        }
+
+        try (LocalStorage storage = open(productFile)) {
+            assertEquals(List.of("4", "5"), ids(storage));
+        }
+    }
+
+    @Test
+    void testReload_KeepsRatingsOfProductsStillInTheFile() throws Exception {
+        Path productFile = writeProducts("1", "2");
+        try (LocalStorage storage = open(productFile)) {
+            storage.addRatings(List.of(new Rating("1", 4.0, null, null), new Rating("1", 2.0, null, null),
+                    new Rating("2", 5.0, null, null)));
+            writeProducts("1", "4");
+            storage.reload();
+
+            assertRatings(storage, "1", 2, 3.0);
+            assertEquals(0, storage.getProductById("4").getRatingCount());
+        }
+
+        try (LocalStorage storage = open(productFile)) {
+            assertEquals(List.of("1", "4"), ids(storage));
+            assertRatings(storage, "1", 2, 3.0);
+        }
+    }
+
+    @Test
+    void testApplyDelta_UpsertWithoutRatingListKeepsRatings() throws Exception {
+        try (LocalStorage storage = open(writeProducts("1"))) {
+            storage.addRatings(List.of(new Rating("1", 4.0, null, null), new Rating("1", 5.0, null, null)));
+
+            storage.applyDelta(upsert("1"));
+            assertRatings(storage, "1", 2, 4.5);
+
+            storage.applyDelta(new CatalogDeltaRecord(List.of(new Product("1", "Product 1", 10.0, null, null, null,
+                    null, null, List.of(new Rating("1", 1.0, null, null)))), null, null, null, null, null));
+            assertRatings(storage, "1", 1, 1.0);
+        }
+    }
+
+    @Test
+    void testRecover_KeepsCatalogWhenReloadCheckpointFails() throws Exception {
+        Path productFile = writeProducts("1", "2");
+        try (LocalStorage storage = open(productFile)) {
+            storage.applyDelta(upsert("3"));
+            writeProducts("4");
+            // Checkpoint 1 holds the catalog first loaded, the one of the reload cannot be written
+            Files.createDirectories(tempDir.resolve("data").resolve("catalog-0000000000000002.bin.tmp"));
+            assertThrows(RuntimeException.class, storage::reload);
+            storage.applyDelta(upsert("5"));
+
+            assertEquals(List.of("1", "2", "3", "5"), ids(storage));
+        }
+
+        try (LocalStorage storage = open(productFile)) {
+            assertEquals(List.of("1", "2", "3", "5"), ids(storage));
+        }
+    }
+
+    private LocalStorage open(Path productFile) {
+        LocalStorage storage = new LocalStorage();
+        ReflectionTestUtils.setField(storage, "productFilePath", productFile.toString());
+        ReflectionTestUtils.setField(storage, "parallelLoad", false);
+        ReflectionTestUtils.setField(storage, "persistenceDir", tempDir.resolve("data").toString());
+        ReflectionTestUtils.setField(storage, "checkpointBytes", Long.MAX_VALUE);
+        storage.initialize();
+        return storage;
+    }
+
+    private static void assertRatings(LocalStorage storage, String productId, int count, double average) {
+        assertEquals(count, storage.getRatings(productId, null, 10, null, null).ratings().size());
+        assertEquals(count, storage.getProductById(productId).getRatingCount());
+        assertEquals(average, storage.getProductById(productId).getAverageRating(), 0.0);
+    }
+
+    private Path writeProducts(String... productIds) throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (String productId : productIds) {
+            json.append(json.length() > 1 ? "," : "")
+                    .append("{\"productId\":\"").append(productId).append("\",\"name\":\"Product ")
+                    .append(productId).append("\",\"price\":10.0}");
+        }
+        return Files.writeString(tempDir.resolve("products.json"), json.append("]"));
+    }
+
+    private static CatalogDeltaRecord upsert(String productId) {
+        return new CatalogDeltaRecord(List.of(new Product(productId, "Product " + productId, 10.0, null, null, null,
+                null, null, null)), null, null, null, null, null);
+    }
+
+    private static List<String> ids(LocalStorage storage) {
+        return storage.getProducts().stream().map(Product::getProductId).toList();
+    }
+}
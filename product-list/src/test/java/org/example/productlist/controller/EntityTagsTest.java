@@ -0,0 +1,57 @@
+package org.example.productlist.controller;
+
+import org.example.productlist.model.entity.Product;
+import org.example.productlist.model.entity.Rating;
+import org.example.productlist.service.ProductView;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EntityTagsTest {
+
+    @Test
+    void testProductTag_ChangesWhenProductChanges() {
+        Product product = new Product("1", "Product A", 10.0, null, null, null, null, null, null);
+        String tag = EntityTags.product(product, ProductView.FULL);
+
+        assertTrue(tag.startsWith("\"") && tag.endsWith("\""));
+        assertEquals(tag, EntityTags.product(product, ProductView.FULL));
+
+        product.setName("Product B");
+        assertNotEquals(tag, EntityTags.product(product, ProductView.FULL));
+    }
+
+    @Test
+    void testProductTag_SameForReloadedProductWithSameContent() {
+        Product loaded = new Product("1", "Product A", 10.0, null, null, null, null, null, null);
+        Product reloaded = new Product("1", "Product A", 10.0, null, null, null, null, null, null);
+
+        assertEquals(EntityTags.product(loaded, ProductView.FULL), EntityTags.product(reloaded, ProductView.FULL));
+
+        reloaded.addRating(new Rating("r1", "1", 4.0, null, null));
+        assertNotEquals(EntityTags.product(loaded, ProductView.FULL),
+                EntityTags.product(reloaded, ProductView.FULL));
+    }
+
+    @Test
+    void testProductTag_DependsOnView() {
+        Product product = new Product("1", "Product A", 10.0, null, null, null, null, null, null);
+
+        String full = EntityTags.product(product, ProductView.FULL);
+        String summary = EntityTags.product(product, ProductView.SUMMARY);
+
+        assertNotEquals(full, summary);
+        assertEquals(summary, EntityTags.product(product, ProductView.SUMMARY));
+    }
+
+    @Test
+    void testQueryTag_DependsOnCatalogContentAndQuery() {
+        String tag = EntityTags.query(1, 0, 10, "price", "ASC");
+
+        assertEquals(tag, EntityTags.query(1, 0, 10, "price", "ASC"));
+        assertNotEquals(tag, EntityTags.query(2, 0, 10, "price", "ASC"));
+        assertNotEquals(tag, EntityTags.query(1, 1, 10, "price", "ASC"));
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.productlist.model.entity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductTest {
+
+    @Test
+    void testAverageRating_ComputedFromRatingList() {
+        Product product = new Product("1", "Product A", 10.0, null, null, null, null, null, List.of(
+                new Rating("r1", "1", 5.0, "Excellent", "c1"),
+                new Rating("r2", "1", 4.1, "Good", "c2"),
+                new Rating("r3", "1", 3.1, "Average", "c3")));
+
+        assertEquals(4.07, product.getAverageRating(), 0.0);
+        assertEquals(3, product.getRatingCount());
+    }
+
+    @Test
+    void testAverageRating_NoRatings() {
+        Product product = new Product("1", "Product A", 10.0, null, null, null, null, null, null);
+
+        assertEquals(0.0, product.getAverageRating(), 0.0);
+        assertEquals(0, product.getRatingCount());
+    }
+
+    @Test
+    void testAverageRating_IgnoredWhenDeserialized() throws Exception {
+        Product product = new ObjectMapper().readValue("{\"productId\":\"1\",\"averageRating\":5.0,\"ratingList\":"
+                + "[{\"productId\":\"1\",\"evaluation\":2.0}]}", Product.class);
+
+        assertEquals(2.0, product.getAverageRating(), 0.0);
+        assertTrue(new ObjectMapper().writeValueAsString(product).contains("\"averageRating\":2.0"));
+    }
+
+    @Test
+    void testAddAndRemoveRating_UpdatesAggregates() {
+        Product product = new Product("1", "Product A", 10.0, null, null, null, null, null, List.of(
+                new Rating("r1", "1", 4.0, "Good", "c1")));
+        Rating rating = new Rating("1", 2.0, "Bad", "c2");
+
+        product.addRating(rating);
+        assertEquals(3.0, product.getAverageRating(), 0.0);
+        assertEquals(2, product.getRatingCount());
+        assertEquals(2, product.getRatingList().size());
+
+        product.removeRating(rating);
+        assertEquals(4.0, product.getAverageRating(), 0.0);
+        assertEquals(1, product.getRatingCount());
+        assertEquals(1, product.getRatingList().size());
+    }
+
+    @Test
+    void testDetachRatings_KeepsAggregates() {
+        List<Rating> ratings = List.of(new Rating("r1", "1", 4.0, "Good", "c1"));
+        Product product = new Product("1", "Product A", 10.0, null, null, null, null, null, ratings);
+        long version = product.getVersion();
+
+        assertSame(ratings, product.detachRatings());
+        assertNull(product.getRatingList());
+        assertTrue(product.getVersion() > version);
+
+        Product copy = product.copy();
+        copy.addRating(new Rating("1", 2.0, "Bad", "c2"));
+        assertNull(copy.getRatingList());
+        assertEquals(3.0, copy.getAverageRating(), 0.0);
+        assertEquals(2, copy.getRatingCount());
+        assertEquals(4.0, product.getAverageRating(), 0.0);
+    }
+}
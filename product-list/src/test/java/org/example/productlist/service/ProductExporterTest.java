@@ -0,0 +1,53 @@
+package org.example.productlist.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.productlist.model.entity.Product;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductExporterTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void testWrite_OneProductPerLine() throws Exception {
+        ProductExporter exporter = new ProductExporter(2);
+        AtomicBoolean closed = new AtomicBoolean();
+        var products = IntStream.range(0, 5)
+                .mapToObj(i -> new Product(String.valueOf(i), "Product " + i, 10.0 * i, new Date(1000L * i), null,
+                        null, null, null, null))
+                .onClose(() -> closed.set(true));
+        var out = new ByteArrayOutputStream();
+
+        long count = exporter.write(products, ProductView.FULL, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(5, count);
+        assertEquals(6, lines.length);
+        assertEquals("", lines[5]);
+        assertEquals("Product 3", mapper.readTree(lines[3]).get("name").asText());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void testWrite_SummaryViewLeavesOutRatings() throws Exception {
+        ProductExporter exporter = new ProductExporter(500);
+        var out = new ByteArrayOutputStream();
+
+        exporter.write(IntStream.range(0, 2).mapToObj(i -> new Product(String.valueOf(i), "Product " + i, 1.0, null,
+                null, null, null, null, null)), ProductView.SUMMARY, out);
+
+        var line = mapper.readTree(out.toString(StandardCharsets.UTF_8).split("\n")[1]);
+        assertEquals("1", line.get("productId").asText());
+        assertFalse(line.has("ratingList"));
+    }
+}
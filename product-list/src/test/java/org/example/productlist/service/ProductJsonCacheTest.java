@@ -0,0 +1,83 @@
+package org.example.productlist.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.productlist.model.entity.Product;
+import org.example.productlist.model.entity.Rating;
+import org.example.productlist.model.entity.Specifications;
+import org.example.productlist.model.records.ProductBatch;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductJsonCacheTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void testJson_ReusesFragmentUntilProductChanges() throws Exception {
+        ProductJsonCache cache = new ProductJsonCache(1 << 20);
+        Product product = new Product("1", "Product A", 10.0, new Date(1000), null, "Description A", null, null, null);
+
+        byte[] first = cache.json(product);
+        assertSame(first, cache.json(product));
+
+        product.setPrice(15.0);
+        byte[] updated = cache.json(product);
+
+        assertNotSame(first, updated);
+        assertEquals(15.0, mapper.readTree(updated).get("price").asDouble());
+    }
+
+    @Test
+    void testJson_ListIsArrayOfFragments() throws Exception {
+        ProductJsonCache cache = new ProductJsonCache(1 << 20);
+        Product a = new Product("1", "Product A", 10.0, null, null, null, null, null, null);
+        Product b = new Product("2", "Product B", 20.0, null, null, null, null, null, null);
+
+        JsonNode array = mapper.readTree(cache.json(List.of(a, b)));
+
+        assertEquals(2, array.size());
+        assertEquals(mapper.readTree(cache.json(a)), array.get(0));
+        assertEquals("Product B", array.get(1).get("name").asText());
+        assertEquals("[]", new String(cache.json(List.of())));
+    }
+
+    @Test
+    void testJson_SummaryViewLeavesOutRatingsAndSpecifications() throws Exception {
+        ProductJsonCache cache = new ProductJsonCache(1 << 20);
+        Product product = new Product("1", "Product A", 10.0, new Date(1000), null, "Description A", "image.png",
+                List.of(new Specifications("s1", "1", "Color", "Black")),
+                List.of(new Rating("r1", "1", 4.0, "Good", "c1"), new Rating("r2", "1", 5.0, "Great", "c2")));
+
+        JsonNode summary = mapper.readTree(cache.json(List.of(product), ProductView.SUMMARY)).get(0);
+        List<String> fields = new ArrayList<>();
+        summary.fieldNames().forEachRemaining(fields::add);
+
+        assertEquals(List.of("productId", "name", "price", "averageRating", "ratingCount", "imageUrl"), fields);
+        assertEquals(4.5, summary.get("averageRating").asDouble());
+        assertEquals(2, summary.get("ratingCount").asInt());
+        assertTrue(mapper.readTree(cache.json(product)).has("ratingList"));
+    }
+
+    @Test
+    void testWrite_BatchListsProductsAndMissingIds() throws Exception {
+        ProductJsonCache cache = new ProductJsonCache(1 << 20);
+        Product a = new Product("1", "Product A", 10.0, null, null, null, null, null, null);
+        var out = new ByteArrayOutputStream();
+
+        cache.write(new ProductBatch(List.of(a), List.of("404", "q\"uote")), ProductView.SUMMARY, out);
+
+        JsonNode batch = mapper.readTree(out.toByteArray());
+        assertEquals(mapper.readTree(cache.json(a, ProductView.SUMMARY)), batch.get("products").get(0));
+        assertEquals("q\"uote", batch.get("missing").get(1).asText());
+    }
+}
@@ -1,7 +1,9 @@
 package org.example.productlist.service;
 
 import org.example.productlist.exception.ProductNotFoundException;
+import org.example.productlist.exception.RatingQueueFullException;
 import org.example.productlist.model.entity.Product;
+import org.example.productlist.model.records.RatingRecord;
 import org.example.productlist.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,12 +12,15 @@ import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -28,6 +33,12 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Spy
+    private QueryCache queryCache = new QueryCache(1000);
+
+    @Mock
+    private RatingWriter ratingWriter;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -259,4 +270,39 @@ class ProductServiceTest {
             assertEquals(productId, result.getProductId());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSubmitRating_QueuesRating() {
+        when(productRepository.getProductById("1")).thenReturn(
+                new Product("1", "Product A", 10.0, null, null, "Description A", null, null, null));
+        when(ratingWriter.submit(any())).thenReturn(true);
+
+        RatingRecord queued = productService.submitRating("1", new RatingRecord(null, null, 4.0, "Good", "c1"));
+
+        assertNotNull(queued.ratingId());
+        assertEquals("1", queued.productId());
+        assertEquals(4.0, queued.score());
+        verify(ratingWriter, times(1)).submit(any());
+    }
+
+    @Test
+    void testSubmitRating_QueueFull() {
+        when(productRepository.getProductById("1")).thenReturn(
+                new Product("1", "Product A", 10.0, null, null, "Description A", null, null, null));
+        when(ratingWriter.submit(any())).thenReturn(false);
+
+        assertThrows(RatingQueueFullException.class, () -> {
+            productService.submitRating("1", new RatingRecord(null, null, 4.0, "Good", "c1"));
+        });
+    }
+
+    @Test
+    void testSubmitRating_ProductNotFound() {
+        when(productRepository.getProductById("1")).thenReturn(null);
+
+        assertThrows(ProductNotFoundException.class, () -> {
+            productService.submitRating("1", new RatingRecord(null, null, 4.0, "Good", "c1"));
+        });
+        verify(ratingWriter, never()).submit(any());
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.productlist.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QueryCacheTest {
+
+    @Test
+    void testGet_ReusesResultForSameVersionAndArguments() {
+        QueryCache cache = new QueryCache(1000);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1, 1, "products", () -> List.of(loads.incrementAndGet()), 0, 10);
+        List<Integer> cached = cache.get(1, 1, "products", () -> List.of(loads.incrementAndGet()), 0, 10);
+        cache.get(1, 1, "products", () -> List.of(loads.incrementAndGet()), 1, 10);
+
+        assertEquals(List.of(1), cached);
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.stats().hitCount());
+    }
+
+    @Test
+    void testGet_NewCatalogVersionDropsOlderEntries() {
+        QueryCache cache = new QueryCache(1000);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1, 1, "products", () -> List.of(loads.incrementAndGet()), 0, 10);
+        cache.get(1, 1, "search", () -> List.of(loads.incrementAndGet()), "phone");
+        List<Integer> reloaded = cache.get(2, 2, "products", () -> List.of(loads.incrementAndGet()), 0, 10);
+
+        assertEquals(List.of(3), reloaded);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testGet_RatingBatchKeepsOnlyResultsIgnoringRatings() {
+        QueryCache cache = new QueryCache(1000);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1, 1, "products", () -> List.of(loads.incrementAndGet()), "rating");
+        cache.getIgnoringRatings(1, 1, "products", () -> List.of(loads.incrementAndGet()), result -> result, "price");
+        List<Integer> byRating = cache.get(1, 2, "products", () -> List.of(loads.incrementAndGet()), "rating");
+        List<Integer> byPrice = cache.getIgnoringRatings(1, 2, "products", () -> List.of(loads.incrementAndGet()),
+                result -> result, "price");
+
+        assertEquals(List.of(3), byRating);
+        assertEquals(List.of(2), byPrice);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void testGetIgnoringRatings_RefreshesOncePerCatalogVersion() {
+        QueryCache cache = new QueryCache(1000);
+        AtomicInteger refreshes = new AtomicInteger();
+        UnaryOperator<List<Integer>> refresh = result -> List.of(result.get(0) + 10 * refreshes.incrementAndGet());
+
+        cache.getIgnoringRatings(1, 1, "products", () -> List.of(1), refresh, 0, 10);
+        List<Integer> same = cache.getIgnoringRatings(1, 1, "products", () -> List.of(2), refresh, 0, 10);
+        List<Integer> rated = cache.getIgnoringRatings(1, 2, "products", () -> List.of(2), refresh, 0, 10);
+        List<Integer> cached = cache.getIgnoringRatings(1, 2, "products", () -> List.of(2), refresh, 0, 10);
+        List<Integer> changed = cache.getIgnoringRatings(3, 3, "products", () -> List.of(2), refresh, 0, 10);
+
+        assertEquals(List.of(1), same);
+        assertEquals(List.of(11), rated);
+        assertEquals(List.of(11), cached);
+        assertEquals(List.of(2), changed);
+        assertEquals(1, refreshes.get());
+    }
+
+    @Test
+    void testGet_ConcurrentMissesComputeOnce() throws Exception {
+        QueryCache cache = new QueryCache(1000);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<Integer>>> results = IntStream.range(0, 8)
+                    .mapToObj(i -> executor.submit(() -> {
+                        start.await();
+                        return cache.<List<Integer>>get(1, 1, "products", () -> {
+                            loads.incrementAndGet();
+                            return List.of(1);
+                        }, 0, 10);
+                    }))
+                    .toList();
+            start.countDown();
+            for (Future<List<Integer>> result : results) {
+                assertEquals(List.of(1), result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+    }
+}
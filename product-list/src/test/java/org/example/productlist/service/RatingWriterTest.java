@@ -0,0 +1,101 @@
+package org.example.productlist.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.productlist.model.entity.Rating;
+import org.example.productlist.model.records.CatalogChangeRecord;
+import org.example.productlist.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.health.contributor.Status;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RatingWriterTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+
+    @SuppressWarnings("unchecked")
+    private final ArgumentCaptor<List<Rating>> batches = ArgumentCaptor.forClass(List.class);
+
+    @Test
+    void testSubmit_AppliesQueuedRatingsInBatches() {
+        when(productRepository.addRatings(any())).thenReturn(new CatalogChangeRecord(1, 1, 0, List.of()));
+        RatingWriter writer = new RatingWriter(productRepository, new SimpleMeterRegistry(), 100, 10, 5);
+        IntStream.range(0, 25).forEach(i -> assertTrue(writer.submit(new Rating("1", 5.0, "Rating " + i, "c1"))));
+        assertEquals(25, writer.depth());
+
+        writer.start();
+        writer.stop();
+
+        verify(productRepository, times(3)).addRatings(batches.capture());
+        assertEquals(List.of(10, 10, 5), batches.getAllValues().stream().map(List::size).toList());
+        assertEquals("Rating 0", batches.getAllValues().get(0).get(0).getMessage());
+        assertEquals(0, writer.depth());
+    }
+
+    @Test
+    void testWrite_RetriesFailedBatch() {
+        when(productRepository.addRatings(any()))
+                .thenThrow(new IllegalStateException("Log closed"))
+                .thenReturn(new CatalogChangeRecord(1, 1, 0, List.of()));
+        RatingWriter writer = new RatingWriter(productRepository, new SimpleMeterRegistry(), 100, 10, 5);
+        IntStream.range(0, 3).forEach(i -> writer.submit(new Rating("1", 5.0, "Rating " + i, "c1")));
+
+        writer.start();
+        writer.stop();
+
+        verify(productRepository, times(2)).addRatings(batches.capture());
+        assertEquals(batches.getAllValues().get(0), batches.getAllValues().get(1));
+        assertEquals(3, batches.getAllValues().get(1).size());
+        assertEquals(0, writer.depth());
+    }
+
+    @Test
+    void testWrite_GivesUpAfterMaxAttempts() throws InterruptedException {
+        when(productRepository.addRatings(any())).thenThrow(new IllegalStateException("Disk full"));
+        RatingWriter writer = new RatingWriter(productRepository, new SimpleMeterRegistry(), 100, 10, 3);
+        IntStream.range(0, 3).forEach(i -> writer.submit(new Rating("1", 5.0, "Rating " + i, "c1")));
+
+        writer.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (writer.health().getStatus() != Status.DOWN && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        writer.stop();
+
+        assertEquals(Status.DOWN, writer.health().getStatus());
+        verify(productRepository, times(3)).addRatings(any());
+        assertFalse(writer.submit(new Rating("1", 5.0, "Late", "c1")));
+    }
+
+    @Test
+    void testSubmit_RejectsRatingsAfterStop() {
+        RatingWriter writer = new RatingWriter(productRepository, new SimpleMeterRegistry(), 100, 10, 5);
+        writer.start();
+        writer.stop();
+
+        assertFalse(writer.submit(new Rating("1", 5.0, "Late", "c1")));
+        assertEquals(0, writer.depth());
+    }
+
+    @Test
+    void testSubmit_RejectsRatingsPastCapacity() {
+        RatingWriter writer = new RatingWriter(productRepository, new SimpleMeterRegistry(), 2, 10, 5);
+
+        assertTrue(writer.submit(new Rating("1", 5.0, "First", "c1")));
+        assertTrue(writer.submit(new Rating("1", 4.0, "Second", "c2")));
+        assertFalse(writer.submit(new Rating("1", 3.0, "Third", "c3")));
+        assertEquals(2, writer.depth());
+    }
+}
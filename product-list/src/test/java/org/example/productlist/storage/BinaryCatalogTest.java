@@ -0,0 +1,130 @@
+package org.example.productlist.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.productlist.model.entity.Product;
+import org.example.productlist.model.entity.Rating;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryCatalogTest {
+
+    private static final Path PRODUCTS_FILE = Path.of("src/main/resources/jsons/products.json");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testWriteAndRead_RoundTripsJsonCatalog() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        List<Product> expected = new ProductFileLoader(mapper).load(PRODUCTS_FILE);
+        Path file = tempDir.resolve("products.bin");
+
+        BinaryCatalog.write(expected, file);
+        BinaryCatalog catalog = BinaryCatalog.open(file);
+        List<Product> products = new ArrayList<>();
+        catalog.forEach(products::add);
+
+        assertTrue(BinaryCatalog.isBinaryCatalog(file));
+        assertFalse(BinaryCatalog.isBinaryCatalog(PRODUCTS_FILE));
+        assertEquals(expected.size(), catalog.size());
+        assertEquals(mapper.writeValueAsString(expected), mapper.writeValueAsString(products));
+    }
+
+    @Test
+    void testRead_TakesRatingAggregatesFromTheRecord() throws IOException {
+        Path file = tempDir.resolve("ratings.bin");
+        List<Rating> ratings = List.of(new Rating("r1", "1", 4.0, null, null), new Rating("r2", "1", null, null, null),
+                new Rating("r3", "1", 1.5, null, null));
+
+        BinaryCatalog.write(List.of(new Product("1", "Product A", 10.0, null, null, null, null, null, null)),
+                product -> ratings, file);
+        Product product = BinaryCatalog.open(file).read(0);
+
+        assertEquals(2, product.getRatingCount());
+        assertEquals(2.75, product.getAverageRating(), 0.0);
+        assertEquals(3, product.getRatingList().size());
+        assertEquals("r3", product.getRatingList().get(2).getRatingId());
+    }
+
+    @Test
+    void testRead_VersionWithoutRatingAggregates() throws IOException {
+        Path file = tempDir.resolve("v1.bin");
+        var bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(BinaryCatalog.MAGIC);
+            out.writeInt(1);
+            out.writeInt(1);
+            out.writeLong(0);
+            // Product "1" without other fields and with one rating
+            writeString(out, "1");
+            writeString(out, null);
+            out.writeBoolean(false);
+            out.writeDouble(0);
+            out.writeLong(Long.MIN_VALUE);
+            out.writeLong(Long.MIN_VALUE);
+            writeString(out, null);
+            writeString(out, null);
+            out.writeInt(-1);
+            out.writeInt(1);
+            out.writeInt(2 * Integer.BYTES);
+            writeString(out, "r1");
+            writeString(out, "1");
+            out.writeBoolean(true);
+            out.writeDouble(4.0);
+            writeString(out, null);
+            writeString(out, null);
+            int end = bytes.size();
+            out.writeLong(20);
+            out.writeLong(end);
+            out.flush();
+            byte[] content = bytes.toByteArray();
+            ByteBuffer.wrap(content).putLong(12, end);
+            Files.write(file, content);
+        }
+
+        Product product = BinaryCatalog.open(file).read(0);
+
+        assertEquals(1, product.getRatingCount());
+        assertEquals(4.0, product.getAverageRating(), 0.0);
+        assertEquals("r1", product.getRatingList().get(0).getRatingId());
+    }
+
+    @Test
+    void testRead_KeepsNullFields() throws IOException {
+        Path file = tempDir.resolve("nulls.bin");
+
+        BinaryCatalog.write(List.of(new Product("1", null, null, null, null, null, null, null, null)), file);
+        Product product = BinaryCatalog.open(file).read(0);
+
+        assertEquals("1", product.getProductId());
+        assertNull(product.getName());
+        assertNull(product.getPrice());
+        assertNull(product.getDatCreation());
+        assertNull(product.getRatingList());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
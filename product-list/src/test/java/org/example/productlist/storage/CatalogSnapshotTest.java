@@ -0,0 +1,463 @@
+package org.example.productlist.storage;
+
+import org.example.productlist.exception.InvalidCursorException;
+import org.example.productlist.model.entity.Product;
+import org.example.productlist.model.entity.Rating;
+import org.example.productlist.model.entity.Specifications;
+import org.example.productlist.model.records.QueryPlanRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogSnapshotTest {
+
+    private CatalogSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = new CatalogSnapshot(1, List.of(
+                new Product("1", "Product C", 30.0, new Date(3000), null, "Description C", null, null, null),
+                new Product("2", "Product A", 10.0, new Date(1000), null, "Description A", null, null, null),
+                new Product("3", "Product B", 20.0, new Date(2000), null, "Description B", null, null, null),
+                new Product("03059512-264d-4525-876a-c1331aef5a80", "Product D", 40.0, new Date(4000), null,
+                        "Description D", null, null, null)
+        ));
+    }
+
+    @Test
+    void testPage_SortByNameAsc() {
+        List<Product> products = snapshot.page(SortKey.NAME, false, 0, 3);
+
+        assertEquals(List.of("Product A", "Product B", "Product C"),
+                products.stream().map(Product::getName).toList());
+    }
+
+    @Test
+    void testPage_SortByPriceDesc() {
+        List<Product> products = snapshot.page(SortKey.PRICE, true, 0, 2);
+
+        assertEquals(List.of("03059512-264d-4525-876a-c1331aef5a80", "1"), products.stream().map(Product::getProductId).toList());
+    }
+
+    @Test
+    void testPage_SecondPageByCreationDate() {
+        List<Product> products = snapshot.page(SortKey.DAT_CREATION, false, 1, 2);
+
+        assertEquals(List.of("1", "03059512-264d-4525-876a-c1331aef5a80"),
+                products.stream().map(Product::getProductId).toList());
+    }
+
+    @Test
+    void testPage_OutOfRangeAndNegativeValues() {
+        assertTrue(snapshot.page(SortKey.NAME, false, 999999, 10).isEmpty());
+        assertTrue(snapshot.page(SortKey.NAME, false, 0, -5).isEmpty());
+        assertEquals(2, snapshot.page(SortKey.NAME, false, -1, 2).size());
+    }
+
+    @Test
+    void testPage_DoesNotChangeProductOrder() {
+        snapshot.page(SortKey.NAME, false, 0, 3);
+
+        assertEquals(List.of("1", "2", "3", "03059512-264d-4525-876a-c1331aef5a80"), snapshot.getProducts().stream().map(Product::getProductId).toList());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getProducts().clear());
+    }
+
+    @Test
+    void testGetById_UuidAndPlainIds() {
+        assertEquals("Product D", snapshot.getById("03059512-264d-4525-876a-c1331aef5a80").getName());
+        assertEquals("Product A", snapshot.getById("2").getName());
+        assertNull(snapshot.getById("03059512-264D-4525-876A-C1331AEF5A80"));
+        assertNull(snapshot.getById("03059512-264d-4525-876a-c1331aef5a81"));
+        assertNull(snapshot.getById("999"));
+        assertNull(snapshot.getById(null));
+    }
+
+    @Test
+    void testMatchName_SubstringIgnoringCase() {
+        CatalogSnapshot catalog = new CatalogSnapshot(1, List.of(
+                new Product("1", "Dynamic Podcast Microphone (USB\u2011C/XLR)", 179.0, null, null, null, null, null,
+                        null),
+                new Product("2", "Café Grinder", 50.0, null, null, null, null, null, null),
+                new Product("3", "USB Hub", 20.0, null, null, null, null, null, null),
+                new Product("4", null, 10.0, null, null, null, null, null, null)
+        ));
+
+        assertEquals(List.of("1"), ids(catalog, "usb\u2011c"));
+        assertEquals(List.of("1", "3"), ids(catalog, "USB"));
+        assertEquals(List.of("2"), ids(catalog, "CAFÉ"));
+        assertEquals(List.of("1", "2"), ids(catalog, "c"));
+        assertEquals(List.of(), ids(catalog, "usb-c"));
+    }
+
+    private List<String> ids(CatalogSnapshot catalog, String name) {
+        return catalog.select(catalog.matchName(name)).stream().map(Product::getProductId).toList();
+    }
+
+    @Test
+    void testRetainPrice_AcrossBitmapWords() {
+        CatalogSnapshot catalog = new CatalogSnapshot(1, IntStream.range(0, 130)
+                .mapToObj(i -> new Product(String.valueOf(i), "Product " + i, i == 70 ? null : (double) i, null, null,
+                        null, null, null, null))
+                .toList());
+        Bitmap matches = Bitmap.all(catalog.size());
+
+        catalog.retainPrice(matches, 60, 129);
+        catalog.retainRating(matches, 0, Double.POSITIVE_INFINITY);
+
+        assertEquals(69, matches.cardinality());
+        assertEquals(60, matches.nextSetBit(0));
+        assertEquals(71, matches.nextSetBit(70));
+    }
+
+    @Test
+    void testRetainSpecification_KeyIgnoringCaseAndValueSubstring() {
+        CatalogSnapshot catalog = new CatalogSnapshot(1, List.of(
+                new Product("1", "Microphone", 179.0, null, null, null, null,
+                        List.of(new Specifications("Connector", "USB-C / XLR", "1")), null),
+                new Product("2", "Hub", 20.0, null, null, null, null,
+                        List.of(new Specifications("Connector", "USB-A", "2"),
+                                new Specifications("Ports", "4", "2")), null),
+                new Product("3", "Headphones", 99.0, null, null, null, null, null, null)
+        ));
+
+        Bitmap usb = Bitmap.all(catalog.size());
+        catalog.retainSpecification(usb, "connector", "usb");
+        Bitmap usbWithPorts = Bitmap.all(catalog.size());
+        catalog.retainSpecification(usbWithPorts, "CONNECTOR", "usb");
+        catalog.retainSpecification(usbWithPorts, "ports", "4");
+        Bitmap unknownKey = Bitmap.all(catalog.size());
+        catalog.retainSpecification(unknownKey, "Color", "red");
+
+        assertEquals(List.of("1", "2"), catalog.select(usb).stream().map(Product::getProductId).toList());
+        assertEquals(List.of("2"), catalog.select(usbWithPorts).stream().map(Product::getProductId).toList());
+        assertTrue(unknownKey.isEmpty());
+    }
+
+    @Test
+    void testSearch_RunsMostSelectivePredicateFirst() {
+        CatalogSnapshot catalog = new CatalogSnapshot(1, IntStream.range(0, 100)
+                .mapToObj(i -> new Product(String.valueOf(i), i % 10 == 0 ? "Laptop " + i : "Phone " + i, (double) i,
+                        null, null, null, null, null, null))
+                .toList());
+        SearchQuery query = SearchQuery.of("laptop", "", 0.0, 5.0, 25.0, 0.0);
+
+        QueryPlanRecord plan = catalog.explain(query);
+
+        assertEquals(List.of("30", "40", "50", "60", "70", "80", "90"),
+                catalog.select(catalog.search(query)).stream().map(Product::getProductId).toList());
+        assertEquals(7, plan.matches());
+        assertEquals("name contains 'laptop'", plan.stages().get(0).predicate());
+        assertEquals("index", plan.stages().get(0).access());
+        assertEquals(10, plan.stages().get(0).estimatedMatches());
+        assertEquals("price between 25.0 and Infinity", plan.stages().get(1).predicate());
+        assertEquals(75, plan.stages().get(1).estimatedMatches());
+        assertEquals("filter", plan.stages().get(2).access());
+    }
+
+    @Test
+    void testPageOfMatches_TopKInBothDirections() {
+        CatalogSnapshot catalog = new CatalogSnapshot(1, IntStream.range(0, 100)
+                .mapToObj(i -> new Product(String.valueOf(i), "Product " + i, (double) ((i * 37) % 100), null, null,
+                        null, null, null, null))
+                .toList());
+        Bitmap matches = new Bitmap(catalog.size());
+        IntStream.range(0, 100).filter(i -> i % 2 == 0).forEach(matches::set);
+
+        List<Double> ascending = catalog.page(matches, SortKey.PRICE, false, 1, 5).stream()
+                .map(Product::getPrice).toList();
+        List<Double> descending = catalog.page(matches, SortKey.PRICE, true, 0, 3).stream()
+                .map(Product::getPrice).toList();
+
+        assertEquals(List.of(10.0, 12.0, 14.0, 16.0, 18.0), ascending);
+        assertEquals(List.of(98.0, 96.0, 94.0), descending);
+        assertEquals(List.of(), catalog.page(matches, SortKey.PRICE, false, 10, 5));
+        assertEquals(50, catalog.page(matches, SortKey.PRICE, false, 0, 999999).size());
+    }
+
+    @Test
+    void testSortKeyFrom_DefaultsToCreationDate() {
+        assertEquals(SortKey.NAME, SortKey.from("name"));
+        assertEquals(SortKey.DAT_CREATION, SortKey.from("invalidField"));
+        assertEquals(SortKey.DAT_CREATION, SortKey.from(null));
+    }
+
+    @Test
+    void testPageAfter_ScrollsWholeCatalogThroughEncodedCursors() {
+        CatalogSnapshot catalog = new CatalogSnapshot(1, IntStream.range(0, 50)
+                .mapToObj(i -> new Product(String.valueOf(i), "Product " + i, (double) (i % 7), null, null,
+                        null, null, null, null))
+                .toList());
+
+        for (boolean descending : new boolean[] { false, true }) {
+            List<Product> scrolled = new ArrayList<>();
+            PageCursor cursor = null;
+            List<Product> page;
+            do {
+                page = catalog.pageAfter(SortKey.PRICE, descending, cursor, 8);
+                scrolled.addAll(page);
+                if (!page.isEmpty()) {
+                    String token = PageCursor.after(SortKey.PRICE, descending, page.get(page.size() - 1)).encode();
+                    cursor = PageCursor.decode(token);
+                }
+            } while (page.size() == 8);
+
+            assertEquals(catalog.page(SortKey.PRICE, descending, 0, 50), scrolled);
+        }
+    }
+
+    @Test
+    void testPageCursorDecode_RejectsMalformedCursor() {
+        assertThrows(InvalidCursorException.class, () -> PageCursor.decode("not-a-cursor"));
+    }
+
+    @Test
+    void testStream_WalksMatchesInCatalogOrder() {
+        Bitmap matches = new Bitmap(snapshot.size());
+        matches.set(0);
+        matches.set(3);
+
+        assertEquals(List.of("1", "03059512-264d-4525-876a-c1331aef5a80"),
+                snapshot.stream(matches).map(Product::getProductId).toList());
+        assertEquals(0, snapshot.stream(new Bitmap(snapshot.size())).count());
+    }
+
+    @Test
+    void testApply_ReplacesAppendsAndRemovesProducts() {
+        Product replaced = new Product("2", "Product E", 50.0, new Date(5000), null, "Description E", null,
+                List.of(new Specifications("Color", "Red", "2")), null);
+        Product added = new Product("5", "Product F", 5.0, new Date(500), null, "Description F", null, null, null);
+
+        CatalogSnapshot next = snapshot.apply(2, List.of(replaced, added), List.of("3", "unknown"));
+
+        assertEquals(2, next.getVersion());
+        assertEquals(4, next.size());
+        assertEquals(List.of("1", "2", "03059512-264d-4525-876a-c1331aef5a80", "5"),
+                next.getProducts().stream().map(Product::getProductId).toList());
+        assertEquals(List.of("Product C", "Product D", "Product E", "Product F"),
+                next.page(SortKey.NAME, false, 0, 10).stream().map(Product::getName).toList());
+        assertEquals(List.of("5", "1", "03059512-264d-4525-876a-c1331aef5a80", "2"),
+                next.page(SortKey.PRICE, false, 0, 10).stream().map(Product::getProductId).toList());
+        assertNull(next.getById("3"));
+        assertNull(next.getRatings("3"));
+        assertEquals(List.of("2"), ids(next, "product e"));
+        assertEquals(List.of(), ids(next, "product a"));
+        assertEquals(List.of("2"), next.select(next.search(SearchQuery.of("", "Color:red", 0.0, 5.0, 0.0, 0.0)))
+                .stream().map(Product::getProductId).toList());
+        assertEquals(4, next.search(SearchQuery.of(null, "", 0.0, 5.0, 0.0, 0.0)).cardinality());
+        // The previous snapshot is left as it was
+        assertEquals("Product A", snapshot.getById("2").getName());
+        assertEquals(List.of("2"), ids(snapshot, "product a"));
+        assertSame(next, next.apply(3, List.of(), List.of("unknown")));
+    }
+
+    @Test
+    void testApply_RemovingUuidKeepsOtherIdsReachable() {
+        List<Product> products = IntStream.range(0, 64)
+                .mapToObj(i -> new Product(uuid(i), "Product " + i, (double) i, null, null, null, null, null, null))
+                .toList();
+        CatalogSnapshot catalog = new CatalogSnapshot(1, products);
+
+        for (int i = 0; i < 64; i += 8) {
+            catalog = catalog.apply(catalog.getVersion() + 1, List.of(), List.of(uuid(i)));
+        }
+
+        for (int i = 0; i < 64; i++) {
+            assertEquals(i % 8 == 0 ? null : "Product " + i,
+                    catalog.getById(uuid(i)) == null ? null : catalog.getById(uuid(i)).getName());
+        }
+    }
+
+    @Test
+    void testApply_KeepsRatingsInSegmentsThroughCompaction() {
+        List<Product> products = IntStream.range(0, 8)
+                .mapToObj(i -> new Product(String.valueOf(i), "Product " + i, (double) i, null, null, null, null, null,
+                        List.of(new Rating("r" + i, String.valueOf(i), 4.0, null, null))))
+                .toList();
+        CatalogSnapshot catalog = new CatalogSnapshot(1, products);
+        RatingSegment appended = catalog.getRatings("1").append(new Rating("1", 2.0, null, null));
+        Product rated = catalog.getById("1").copy();
+        rated.addRating(appended.get(1));
+
+        CatalogSnapshot next = catalog.apply(2, List.of(rated), Map.of("1", appended), List.of("2"));
+        // Removing three of eight products rebuilds the catalog
+        CatalogSnapshot compacted = next.apply(3, List.of(), List.of("3", "4"));
+
+        assertNull(catalog.getById("1").getRatingList());
+        assertEquals(1, catalog.getRatings("1").size());
+        for (CatalogSnapshot snapshot : List.of(next, compacted)) {
+            assertEquals(2, snapshot.getRatings("1").size());
+            assertEquals(3.0, snapshot.getById("1").getAverageRating(), 0.0);
+            assertEquals("r5", snapshot.getRatings("5").get(0).getRatingId());
+        }
+        assertEquals(5, compacted.size());
+    }
+
+    @Test
+    void testApplyRatings_ReordersByAverageRating() {
+        Product rated = snapshot.getById("2").copy();
+        rated.addRating(new Rating("2", 5.0, null, null));
+        RatingSegment ratings = snapshot.getRatings("2").append(new Rating("2", 5.0, null, null));
+
+        CatalogSnapshot next = snapshot.applyRatings(2, List.of(rated), Map.of("2", ratings));
+
+        assertEquals(2, next.getVersion());
+        assertSame(rated, next.getById("2"));
+        assertSame(ratings, next.getRatings("2"));
+        assertEquals("2", next.page(SortKey.RATING, true, 0, 1).get(0).getProductId());
+        assertEquals(List.of("2"), next.select(next.search(SearchQuery.of(null, "", 4.0, 5.0, 0.0, 0.0)))
+                .stream().map(Product::getProductId).toList());
+        assertEquals(List.of("Product A", "Product B", "Product C", "Product D"),
+                next.page(SortKey.NAME, false, 0, 10).stream().map(Product::getName).toList());
+        assertEquals(0, snapshot.getRatings("2").size());
+        assertEquals(3, next.applyRatings(3, List.of(), Map.of()).getVersion());
+    }
+
+    @Test
+    void testApplyRatings_MatchesCatalogBuiltFromScratch() {
+        Random random = new Random(7);
+        List<Product> products = IntStream.range(0, 300)
+                .mapToObj(i -> new Product(String.valueOf(i), "Product " + i, (double) i, null, null, null, null, null,
+                        List.of(new Rating(String.valueOf(i), (double) (1 + random.nextInt(5)), null, null))))
+                .toList();
+        CatalogSnapshot catalog = new CatalogSnapshot(1, products)
+                .apply(2, List.of(), IntStream.range(0, 40).mapToObj(i -> String.valueOf(i * 7)).toList());
+        for (int round = 0; round < 30; round++) {
+            List<Product> rated = new ArrayList<>();
+            Map<String, RatingSegment> ratings = new HashMap<>();
+            for (int i = 0; i < 1 + random.nextInt(15); i++) {
+                String productId = String.valueOf(random.nextInt(300));
+                if (catalog.getById(productId) == null || ratings.containsKey(productId)) {
+                    continue;
+                }
+                Product product = catalog.getById(productId).copy();
+                Rating rating = new Rating(productId, (double) (1 + random.nextInt(5)), null, null);
+                product.addRating(rating);
+                rated.add(product);
+                ratings.put(productId, catalog.getRatings(productId).append(rating));
+            }
+            catalog = catalog.applyRatings(round + 3, rated, ratings);
+            CatalogSnapshot rebuilt = new CatalogSnapshot(round + 3, catalog.getProducts());
+
+            assertEquals(ids(rebuilt.getProducts()), ids(catalog.getProducts()));
+            assertEquals(rebuilt.getContentHash(), catalog.getContentHash());
+            assertEquals(2, catalog.getContentVersion());
+            assertEquals(ids(rebuilt.page(SortKey.RATING, false, 0, 300)),
+                    ids(catalog.page(SortKey.RATING, false, 0, 300)));
+            assertEquals(ids(rebuilt.page(SortKey.RATING, true, 1, 50)), ids(catalog.page(SortKey.RATING, true, 1, 50)));
+            SearchQuery query = SearchQuery.of(null, "", 2.0, 4.0, 0.0, 0.0);
+            assertEquals(ids(rebuilt.page(rebuilt.search(query), SortKey.RATING, true, 0, 300)),
+                    ids(catalog.page(catalog.search(query), SortKey.RATING, true, 0, 300)));
+        }
+    }
+
+    @Test
+    void testApplyRatings_ReadsOnlyTheRatedProducts() {
+        int[] reads = new int[1];
+        List<Product> products = new ArrayList<>();
+        Map<String, RatingSegment> ratings = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            String productId = String.valueOf(i);
+            products.add(new Product(productId, "Product " + i, (double) i, new Date(i), null, null, null, null, null) {
+                @Override
+                public double getAverageRating() {
+                    reads[0]++;
+                    return super.getAverageRating();
+                }
+            });
+            ratings.put(productId, new RatingSegment(null));
+        }
+        CatalogSnapshot catalog = new CatalogSnapshot(1, List.of()).apply(2, products, ratings, List.of("0"));
+        Product rated = catalog.getById("5000").copy();
+        Rating rating = new Rating("5000", 5.0, null, null);
+        rated.addRating(rating);
+        reads[0] = 0;
+
+        CatalogSnapshot next = catalog.applyRatings(3, List.of(rated),
+                Map.of("5000", catalog.getRatings("5000").append(rating)));
+
+        // The binary search in the rating order reads about log2(10000) products, a rebuild would read all of them
+        assertTrue(reads[0] < 50, "Read " + reads[0] + " products");
+        assertSame(rated, next.getProducts().get(4999));
+        assertEquals("5000", next.page(SortKey.RATING, true, 0, 1).get(0).getProductId());
+    }
+
+    @Test
+    void testBuild_LeavesRatingsOfGivenProducts() {
+        List<Rating> ratings = List.of(new Rating("1", 4.0, null, null));
+        Product product = new Product("1", "Product A", 10.0, null, null, null, null, null, ratings);
+        Product upsert = new Product("2", "Product B", 20.0, null, null, null, null, null, ratings);
+
+        CatalogSnapshot catalog = new CatalogSnapshot(1, List.of(product)).apply(2, List.of(upsert), List.of());
+
+        assertEquals(ratings, product.getRatingList());
+        assertEquals(ratings, upsert.getRatingList());
+        assertNull(catalog.getById("1").getRatingList());
+        assertNull(catalog.getById("2").getRatingList());
+        assertEquals(1, catalog.getRatings("2").size());
+        assertEquals(4.0, catalog.getById("2").getAverageRating());
+    }
+
+    @Test
+    void testApply_MatchesCatalogBuiltFromScratch() {
+        Random random = new Random(42);
+        String[] words = { "Laptop", "Phone", "Cable", "Charger", "Headset" };
+        CatalogSnapshot catalog = new CatalogSnapshot(1, List.of());
+        for (int round = 0; round < 40; round++) {
+            List<Product> upserts = new ArrayList<>();
+            List<String> deletes = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(20); i++) {
+                String productId = random.nextBoolean() ? uuid(random.nextInt(200)) : String.valueOf(random.nextInt(200));
+                if (random.nextInt(4) == 0) {
+                    deletes.add(productId);
+                    continue;
+                }
+                String word = words[random.nextInt(words.length)];
+                upserts.add(new Product(productId, word + " " + random.nextInt(50),
+                        random.nextInt(10) == 0 ? null : (double) random.nextInt(100), new Date(random.nextInt(1000)),
+                        null, null, null, List.of(new Specifications("Brand", "Brand " + random.nextInt(5), productId)),
+                        List.of(new Rating(productId,
+                                (double) (1 + random.nextInt(5)), null, null))));
+            }
+            catalog = catalog.apply(round + 2, upserts, deletes);
+            CatalogSnapshot rebuilt = new CatalogSnapshot(round + 2, catalog.getProducts());
+
+            assertEquals(rebuilt.size(), catalog.size());
+            assertEquals(rebuilt.getContentHash(), catalog.getContentHash());
+            for (SortKey key : SortKey.values()) {
+                assertEquals(ids(rebuilt.page(key, false, 0, 1000)), ids(catalog.page(key, false, 0, 1000)));
+                assertEquals(ids(rebuilt.page(key, true, 0, 1000)), ids(catalog.page(key, true, 0, 1000)));
+            }
+            for (SearchQuery query : List.of(SearchQuery.of("cable", "", 0.0, 5.0, 0.0, 0.0),
+                    SearchQuery.of("", "brand:brand 3", 0.0, 5.0, 20.0, 80.0),
+                    SearchQuery.of("a", "", 3.0, 5.0, 0.0, 0.0),
+                    SearchQuery.of(null, "", 0.0, 5.0, 0.0, 0.0))) {
+                assertEquals(ids(rebuilt.page(rebuilt.search(query), SortKey.NAME, false, 0, 1000)),
+                        ids(catalog.page(catalog.search(query), SortKey.NAME, false, 0, 1000)));
+            }
+            for (Product product : rebuilt.getProducts()) {
+                assertEquals(product.getContentHash(), catalog.getById(product.getProductId()).getContentHash());
+            }
+        }
+    }
+
+    private static List<String> ids(List<Product> products) {
+        return products.stream().map(Product::getProductId).toList();
+    }
+
+    private static String uuid(int i) {
+        return String.format("%08x-0000-4000-8000-%012x", i, i * 31L);
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.productlist.storage;
+
+import org.example.productlist.model.entity.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRecover_ReplaysEveryAcknowledgedChange() throws Exception {
+        try (CatalogStore store = new CatalogStore(tempDir, Long.MAX_VALUE)) {
+            assertEquals(0, store.recover(change -> { }));
+            // Appends from many threads at once end up in shared batches
+            List<CompletableFuture<Void>> appends = IntStream.range(0, 200).parallel()
+                    .mapToObj(i -> store.append(bytes("change " + i)))
+                    .toList();
+            appends.forEach(CompletableFuture::join);
+        }
+
+        List<String> replayed = recover(tempDir);
+
+        assertEquals(200, replayed.size());
+        assertEquals(IntStream.range(0, 200).mapToObj(i -> "change " + i).sorted().toList(),
+                replayed.stream().sorted().toList());
+    }
+
+    @Test
+    void testRecover_CutsOffTornTail() throws Exception {
+        try (CatalogStore store = new CatalogStore(tempDir, Long.MAX_VALUE)) {
+            store.recover(change -> { });
+            store.append(bytes("first")).join();
+            store.append(bytes("second")).join();
+        }
+        Path segment = files(tempDir).get(0);
+        long intact = Files.size(segment);
+        Files.write(segment, new byte[] { 0, 0, 0, 42, 1, 2 }, StandardOpenOption.APPEND);
+
+        assertEquals(List.of("first", "second"), recover(tempDir));
+        assertEquals(intact, Files.size(segment));
+    }
+
+    @Test
+    void testCheckpoint_RecoversFromCheckpointAndLaterChanges() throws Exception {
+        List<Product> products = List.of(
+                new Product("1", "Product A", 10.0, null, null, null, null, null, null),
+                new Product("2", "Product B", 20.0, null, null, null, null, null, null));
+        try (CatalogStore store = new CatalogStore(tempDir, 1)) {
+            assertNull(store.latestCheckpoint());
+            store.recover(change -> { });
+            store.append(bytes("before")).join();
+            assertTrue(store.isCheckpointDue());
+            store.checkpoint(new CatalogSnapshot(1, products)).join();
+            store.append(bytes("after")).join();
+        }
+
+        try (CatalogStore store = new CatalogStore(tempDir, Long.MAX_VALUE)) {
+            BinaryCatalog checkpoint = BinaryCatalog.open(store.latestCheckpoint());
+            List<String> replayed = new ArrayList<>();
+            store.recover(change -> replayed.add(new String(change, StandardCharsets.UTF_8)));
+
+            assertEquals(2, checkpoint.size());
+            assertEquals("Product B", checkpoint.read(1).getName());
+            assertEquals(List.of("after"), replayed);
+            assertEquals(List.of("catalog-0000000000000001.bin", "wal-0000000000000001.log"),
+                    files(tempDir).stream().map(file -> file.getFileName().toString()).toList());
+        }
+    }
+
+    @Test
+    void testResetLog_TakesChangesAgainAfterFailedWrite() throws Exception {
+        try (CatalogStore store = new CatalogStore(tempDir, Long.MAX_VALUE)) {
+            store.recover(change -> { });
+            store.append(bytes("first")).join();
+            // The next segment cannot be opened, so the log fails until it is reset
+            Path next = Files.createDirectory(tempDir.resolve("wal-0000000000000001.log"));
+            CompletableFuture<Void> checkpoint = store.checkpoint(new CatalogSnapshot(1, List.of()));
+            CompletableFuture<Void> failed = store.append(bytes("failed"));
+            store.resetLog().join();
+            store.append(bytes("second")).join();
+
+            assertThrows(CompletionException.class, checkpoint::join);
+            assertThrows(CompletionException.class, failed::join);
+            Files.delete(next);
+        }
+
+        assertEquals(List.of("first", "second"), recover(tempDir));
+    }
+
+    private static List<String> recover(Path directory) throws Exception {
+        List<String> replayed = new ArrayList<>();
+        try (CatalogStore store = new CatalogStore(directory, Long.MAX_VALUE)) {
+            store.recover(change -> replayed.add(new String(change, StandardCharsets.UTF_8)));
+        }
+        return replayed;
+    }
+
+    private static List<Path> files(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
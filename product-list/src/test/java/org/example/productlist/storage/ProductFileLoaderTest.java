@@ -0,0 +1,91 @@
+package org.example.productlist.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.productlist.model.entity.Product;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProductFileLoaderTest {
+
+    private static final Path PRODUCTS_FILE = Path.of("src/main/resources/jsons/products.json");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void testLoad_MatchesFullDocumentParse() throws IOException {
+        List<Product> expected = List.of(mapper.readValue(PRODUCTS_FILE.toFile(), Product[].class));
+
+        List<Product> products = new ProductFileLoader(mapper).load(PRODUCTS_FILE);
+
+        assertEquals(expected.size(), products.size());
+        assertEquals(expected.stream().map(Product::getProductId).toList(),
+                products.stream().map(Product::getProductId).toList());
+        assertEquals(expected.get(0).getAverageRating(), products.get(0).getAverageRating());
+    }
+
+    @Test
+    void testLoad_KeepsFileOrderAcrossManyChunks() throws IOException {
+        Path file = Files.createTempFile("products", ".json");
+        // About 4 MB, more chunks than are parsed at a time on most machines
+        Files.writeString(file, IntStream.range(0, 40_000)
+                .mapToObj(i -> "{\"productId\":\"" + i + "\",\"name\":\"Product " + i + "\",\"description\":\""
+                        + "x".repeat(50) + "\"}")
+                .collect(Collectors.joining(",\n", "[", "]")));
+        List<String> productIds = new ArrayList<>();
+
+        new ProductFileLoader(mapper).load(file, product -> productIds.add(product.getProductId()));
+
+        assertEquals(IntStream.range(0, 40_000).mapToObj(String::valueOf).toList(), productIds);
+        Files.delete(file);
+    }
+
+    @Test
+    void testStream_MatchesParallelLoad() throws IOException {
+        List<Product> expected = new ProductFileLoader(mapper).load(PRODUCTS_FILE);
+        List<Product> products = new ArrayList<>();
+
+        new ProductFileLoader(mapper).stream(PRODUCTS_FILE, products::add);
+
+        assertEquals(expected.stream().map(Product::getProductId).toList(),
+                products.stream().map(Product::getProductId).toList());
+    }
+
+    @Test
+    void testStream_InternsRepeatedStrings() throws IOException {
+        Path file = Files.createTempFile("products", ".json");
+        Files.writeString(file, """
+                [{"productId":"1","specificationsList":[{"productId":"1","key":"Color","value":"Red"}]},
+                 {"productId":"2","specificationsList":[{"productId":"2","key":"Color","value":"Red"}]}]
+                """);
+        List<Product> products = new ArrayList<>();
+
+        new ProductFileLoader(mapper).stream(file, products::add);
+
+        var first = products.get(0).getSpecificationsList().get(0);
+        var second = products.get(1).getSpecificationsList().get(0);
+        assertSame(first.getKey(), second.getKey());
+        assertSame(first.getValue(), second.getValue());
+        assertSame(products.get(1).getProductId(), second.getProductId());
+        Files.delete(file);
+    }
+
+    @Test
+    void testLoad_RejectsDocumentThatIsNotAnArray() throws IOException {
+        Path file = Files.createTempFile("products", ".json");
+        Files.writeString(file, "{\"productId\":\"1\"}");
+
+        assertThrows(IOException.class, () -> new ProductFileLoader(mapper).load(file));
+        Files.delete(file);
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.productlist.storage;
+
+import org.example.productlist.model.entity.Rating;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RatingSegmentTest {
+
+    private static List<Rating> ratings(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Rating("r" + i, "1", i % 5 == 0 ? null : (double) (i % 4 + 1), "Message " + i,
+                        "c" + i))
+                .toList();
+    }
+
+    private static List<Integer> scroll(RatingSegment segment, RatingSort sort, boolean descending, int pageSize) {
+        List<Integer> scrolled = new ArrayList<>();
+        RatingCursor cursor = null;
+        int[] page;
+        do {
+            page = segment.positions(sort, descending, cursor, pageSize);
+            Arrays.stream(page).forEach(scrolled::add);
+            if (page.length > 0) {
+                cursor = RatingCursor.decode(segment.cursorAt(sort, descending, page[page.length - 1]).encode());
+            }
+        } while (page.length == pageSize);
+        return scrolled;
+    }
+
+    @Test
+    void testPositions_RecentFirstWalksBackFromLastAppended() {
+        RatingSegment segment = new RatingSegment(ratings(7)).append(new Rating("r7", "1", 5.0, "Appended", "c7"));
+
+        assertEquals(List.of(7, 6, 5, 4, 3, 2, 1, 0), scroll(segment, RatingSort.RECENT, true, 3));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7), scroll(segment, RatingSort.RECENT, false, 3));
+        assertEquals("Appended", segment.get(7).getMessage());
+    }
+
+    @Test
+    void testPositions_ScoreOrderBreaksTiesByPosition() {
+        RatingSegment segment = new RatingSegment(ratings(23));
+        List<Integer> expected = IntStream.range(0, 23).boxed()
+                .sorted(Comparator.<Integer>comparingDouble(i -> segment.get(i).getScore() == null
+                        ? Double.NEGATIVE_INFINITY : segment.get(i).getScore()).thenComparingInt(i -> i))
+                .toList();
+
+        assertEquals(expected, scroll(segment, RatingSort.SCORE, false, 4));
+        assertEquals(expected.reversed(), scroll(segment, RatingSort.SCORE, true, 4));
+    }
+
+    @Test
+    void testPositions_HugeLimitReturnsTheRemainingRatings() {
+        RatingSegment segment = new RatingSegment(ratings(5));
+        RatingCursor cursor = segment.cursorAt(RatingSort.RECENT, true, 2);
+
+        assertEquals(5, segment.positions(RatingSort.SCORE, false, null, Integer.MAX_VALUE).length);
+        assertEquals(List.of(1, 0), Arrays.stream(segment.positions(RatingSort.RECENT, true, cursor,
+                Integer.MAX_VALUE)).boxed().toList());
+    }
+
+    @Test
+    void testPositions_CursorSurvivesAppends() {
+        RatingSegment segment = new RatingSegment(ratings(6));
+        int[] first = segment.positions(RatingSort.RECENT, true, null, 3);
+        RatingCursor cursor = segment.cursorAt(RatingSort.RECENT, true, first[2]);
+
+        RatingSegment appended = segment.append(new Rating("r6", "1", 4.0, "Appended", "c6"));
+
+        assertEquals(List.of(2, 1, 0), Arrays.stream(appended.positions(RatingSort.RECENT, true, cursor, 3))
+                .boxed().toList());
+    }
+
+    @Test
+    void testAppend_ExtendsScoreOrderAndLeavesShorterSegments() {
+        RatingSegment loaded = new RatingSegment(ratings(9));
+        assertEquals(scoreOrder(loaded), scroll(loaded, RatingSort.SCORE, false, 4));
+        RatingSegment first = loaded.append(List.of(new Rating("r9", "1", 2.0, "Second", "c9"),
+                new Rating("r10", "1", null, "Third", "c10")));
+        RatingSegment second = first.append(new Rating("r11", "1", 5.0, "Fourth", "c11"));
+
+        assertEquals(12, second.size());
+        assertEquals(scoreOrder(second), scroll(second, RatingSort.SCORE, false, 4));
+        assertEquals(scoreOrder(first), scroll(first, RatingSort.SCORE, false, 4));
+        assertEquals(9, loaded.size());
+        assertEquals(scoreOrder(loaded), scroll(loaded, RatingSort.SCORE, true, 4).reversed());
+    }
+
+    @Test
+    void testAppend_ToShorterSegmentBranches() {
+        RatingSegment base = new RatingSegment(ratings(3));
+        RatingSegment discarded = base.append(new Rating("r3", "1", 1.0, "Discarded", "c3"));
+        RatingSegment kept = base.append(new Rating("r3", "1", 5.0, "Kept", "c3"));
+
+        assertEquals("Discarded", discarded.get(3).getMessage());
+        assertEquals("Kept", kept.get(3).getMessage());
+        assertEquals("Kept", kept.append(new Rating("r4", "1", 4.0, "Next", "c4")).get(3).getMessage());
+    }
+
+    @Test
+    void testReplaceAndRemove_CopyTheSegment() {
+        RatingSegment segment = new RatingSegment(ratings(4));
+
+        RatingSegment replaced = segment.replace(segment.indexOf("r2"), new Rating("r2", "1", 5.0, "Edited", "c2"));
+        RatingSegment removed = replaced.remove(replaced.indexOf("r1"));
+
+        assertEquals("Message 2", segment.get(2).getMessage());
+        assertEquals("Edited", replaced.get(2).getMessage());
+        assertEquals(List.of("r0", "r2", "r3"), removed.asList().stream().map(Rating::getRatingId).toList());
+        assertEquals(-1, removed.indexOf("r1"));
+    }
+
+    private static List<Integer> scoreOrder(RatingSegment segment) {
+        return IntStream.range(0, segment.size()).boxed()
+                .sorted(Comparator.<Integer>comparingDouble(i -> segment.get(i).getScore() == null
+                        ? Double.NEGATIVE_INFINITY : segment.get(i).getScore()).thenComparingInt(i -> i))
+                .toList();
+    }
+}